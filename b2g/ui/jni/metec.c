@@ -12,6 +12,9 @@ MAKE_FILE_LOG_TAG;
 #define BRAILLE_CELL_COUNT 20
 static int brailleDevice = -1;
 
+// the driver only accepts whole lines, so the most recently written one is kept here
+static unsigned char brailleCells[BRAILLE_CELL_COUNT];
+
 static int
 isOpen (void) {
   if (brailleDevice != -1) return 1;
@@ -155,6 +158,7 @@ JAVA_METHOD(
 ) {
   if (isOpen()) {
     if (ioctl(brailleDevice, METEC_FLAT20_CLEAR_DISPLAY, 0) != -1) {
+      memset(brailleCells, 0, sizeof(brailleCells));
       return JNI_TRUE;
     } else {
       logSystemError(LOG_TAG, "ioctl[METEC_FLAT20_CLEAR_DISPLAY]");
@@ -164,43 +168,50 @@ JAVA_METHOD(
   return JNI_FALSE;
 }
 
+static jboolean
+writeBrailleCells (void) {
+  ssize_t result = write(brailleDevice, brailleCells, sizeof(brailleCells));
+  if (result != -1) return JNI_TRUE;
+
+  logSystemError(LOG_TAG, "write[braille]");
+  return JNI_FALSE;
+}
+
 JAVA_METHOD(
   org_nbp_b2g_ui_MetecBrailleDevice, writeCells, jboolean,
   jbyteArray jCells
 ) {
   if (isOpen()) {
-    jboolean isCopy;
-    jbyte *cCells = (*env)->GetByteArrayElements(env, jCells, &isCopy);
+    jsize count = (*env)->GetArrayLength(env, jCells);
+    if (count > BRAILLE_CELL_COUNT) count = BRAILLE_CELL_COUNT;
 
-    if (!checkException(env)) {
-      unsigned char cells[BRAILLE_CELL_COUNT];
+    (*env)->GetByteArrayRegion(env, jCells, 0, count, (jbyte *)brailleCells);
 
-      {
-        unsigned int index = 0;
-        jsize length = (*env)->GetArrayLength(env, jCells);
-        jsize count = length;
-
-        if (BRAILLE_CELL_COUNT < count) count = BRAILLE_CELL_COUNT;
+    if (!checkException(env)) {
+      memset(&brailleCells[count], 0, (BRAILLE_CELL_COUNT - count));
+      return writeBrailleCells();
+    }
+  }
 
-        while (index < count) {
-          cells[index] = cCells[index];
-          index += 1;
-        }
+  return JNI_FALSE;
+}
 
-        while (index < BRAILLE_CELL_COUNT) cells[index++] = 0;
-        (*env)->ReleaseByteArrayElements(env, jCells, cCells, JNI_ABORT);
-      }
+JAVA_METHOD(
+  org_nbp_b2g_ui_MetecBrailleDevice, writeCellRange, jboolean,
+  jbyteArray jCells, jint from, jint to
+) {
+  if (isOpen()) {
+    {
+      jsize length = (*env)->GetArrayLength(env, jCells);
+      if (to > length) to = length;
+    }
 
-      {
-        ssize_t result = write(brailleDevice, cells, sizeof(cells));
+    if (to > BRAILLE_CELL_COUNT) to = BRAILLE_CELL_COUNT;
+    if (from < 0) from = 0;
+    if (from >= to) return JNI_TRUE;
 
-        if (result != -1) {
-          return JNI_TRUE;
-        } else {
-          logSystemError(LOG_TAG, "write[braille]");
-        }
-      }
-    }
+    (*env)->GetByteArrayRegion(env, jCells, from, (to - from), (jbyte *)&brailleCells[from]);
+    if (!checkException(env)) return writeBrailleCells();
   }
 
   return JNI_FALSE;
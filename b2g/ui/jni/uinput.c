@@ -64,6 +64,20 @@ typedef uint16_t InputEventType;
 typedef uint16_t InputEventCode;
 typedef int32_t InputEventValue;
 
+#define INPUT_EVENT_BUFFER_SIZE 0X40
+
+// the Java side serializes the calls for each device since the event buffer isn't locked
+typedef struct {
+  const char *path;
+  int device;
+  struct uinput_user_dev properties;
+
+  struct {
+    struct input_event buffer[INPUT_EVENT_BUFFER_SIZE];
+    unsigned int count;
+  } events;
+} UinputDescriptor;
+
 static int
 enableEventType (int device, InputEventType type) {
   if (ioctl(device, UI_SET_EVBIT, type) != -1) return 1;
@@ -97,35 +111,61 @@ enableEventCodes (
 }
 
 static int
-writeInputEvent (int device, InputEventType type, InputEventCode code, InputEventValue value) {
-  struct input_event event;
+flushInputEvents (UinputDescriptor *ui) {
+  size_t size = ui->events.count * sizeof(ui->events.buffer[0]);
+  ui->events.count = 0;
+
+  if (size) {
+    // the whole batch is submitted with a single system call
+    ssize_t result = write(ui->device, ui->events.buffer, size);
+
+    if (result == -1) {
+      logSystemError(LOG_TAG, "write[input_event]");
+      return 0;
+    }
+
+    if (result != size) {
+      LOG(WARN, "input events truncated: %d < %d", (int)result, (int)size);
+      return 0;
+    }
+  }
+
+  return 1;
+}
+
+static int
+writeInputEvent (UinputDescriptor *ui, InputEventType type, InputEventCode code, InputEventValue value) {
+  struct input_event *event;
+
+  if (ui->events.count >= ARRAY_COUNT(ui->events.buffer)) {
+    if (!flushInputEvents(ui)) return 0;
+  }
 
-  memset(&event, 0, sizeof(event));
-  gettimeofday(&event.time, NULL);
+  event = &ui->events.buffer[ui->events.count++];
+  memset(event, 0, sizeof(*event));
+  gettimeofday(&event->time, NULL);
 
-  event.type = type;
-  event.code = code;
-  event.value = value;
+  event->type = type;
+  event->code = code;
+  event->value = value;
 
   LOG(VERBOSE,
     "sending input event: Type:%d Code:%d Value:%d",
     type, code, value
   );
 
-  if (write(device, &event, sizeof(event)) != -1) return 1;
-  logSystemError(LOG_TAG, "write[input_event]");
-  return 0;
+  return 1;
 }
 
 static int
-writeSynReport (int device) {
-  return writeInputEvent(device, EV_SYN, SYN_REPORT, 0);
+writeSynReport (UinputDescriptor *ui) {
+  return writeInputEvent(ui, EV_SYN, SYN_REPORT, 0);
 }
 
 /*
 static int
-writeSynMtReport (int device) {
-  return writeInputEvent(device, EV_SYN, SYN_MT_REPORT, 0);
+writeSynMtReport (UinputDescriptor *ui) {
+  return writeInputEvent(ui, EV_SYN, SYN_MT_REPORT, 0);
 }
 */
 
@@ -149,8 +189,8 @@ enableKeyCodes (int device, const InputEventCode *codes) {
 }
 
 static int
-writeKeyEvent (int device, InputEventCode key, int press) {
-  return writeInputEvent(device, EV_KEY, key, (press? 1: 0));
+writeKeyEvent (UinputDescriptor *ui, InputEventCode key, int press) {
+  return writeInputEvent(ui, EV_KEY, key, (press? 1: 0));
 }
 
 static int
@@ -174,8 +214,8 @@ enableRelCodes (int device, const InputEventCode *codes) {
 
 /*
 static int
-writeRelEvent (int device, InputEventCode action, InputEventValue value) {
-  return writeInputEvent(device, EV_REL, action, value);
+writeRelEvent (UinputDescriptor *ui, InputEventCode action, InputEventValue value) {
+  return writeInputEvent(ui, EV_REL, action, value);
 }
 */
 
@@ -199,16 +239,10 @@ enableAbsCodes (int device, const InputEventCode *codes) {
 }
 
 static int
-writeAbsEvent (int device, InputEventCode action, InputEventValue value) {
-  return writeInputEvent(device, EV_ABS, action, value);
+writeAbsEvent (UinputDescriptor *ui, InputEventCode action, InputEventValue value) {
+  return writeInputEvent(ui, EV_ABS, action, value);
 }
 
-typedef struct {
-  const char *path;
-  int device;
-  struct uinput_user_dev properties;
-} UinputDescriptor;
-
 #define UINPUT_DESCRIPTOR UinputDescriptor *ui = (*env)->GetDirectBufferAddress(env, uinput)
 
 JAVA_METHOD(
@@ -308,9 +342,9 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeKeyEvent(ui->device, key, 1)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeKeyEvent(ui, key, 1)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 JAVA_METHOD(
@@ -319,15 +353,51 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeKeyEvent(ui->device, key, 0)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeKeyEvent(ui, key, 0)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
+}
+
+static jboolean
+writeKeyEvents (JNIEnv *env, UinputDescriptor *ui, jintArray jKeys, int press) {
+  jsize count = (*env)->GetArrayLength(env, jKeys);
+  if (!count) return JNI_TRUE;
+
+  jint keys[count];
+  jsize index;
+
+  (*env)->GetIntArrayRegion(env, jKeys, 0, count, keys);
+
+  for (index=0; index<count; index+=1) {
+    if (!writeKeyEvent(ui, keys[index], press)) return JNI_FALSE;
+    if (!writeSynReport(ui)) return JNI_FALSE;
+  }
+
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
+}
+
+JAVA_METHOD(
+  org_nbp_b2g_ui_KeyboardDevice, keyboardPressKeys, jboolean,
+  jobject uinput, jintArray keys
+) {
+  UINPUT_DESCRIPTOR;
+
+  return writeKeyEvents(env, ui, keys, 1);
+}
+
+JAVA_METHOD(
+  org_nbp_b2g_ui_KeyboardDevice, keyboardReleaseKeys, jboolean,
+  jobject uinput, jintArray keys
+) {
+  UINPUT_DESCRIPTOR;
+
+  return writeKeyEvents(env, ui, keys, 0);
 }
 
 static int
-writePointerLocation (int device, InputEventValue x, InputEventValue y) {
-  if (!writeAbsEvent(device, ABS_X, x)) return 0;
-  if (!writeAbsEvent(device, ABS_Y, y)) return 0;
+writePointerLocation (UinputDescriptor *ui, InputEventValue x, InputEventValue y) {
+  if (!writeAbsEvent(ui, ABS_X, x)) return 0;
+  if (!writeAbsEvent(ui, ABS_Y, y)) return 0;
   return 1;
 }
 
@@ -377,10 +447,10 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writePointerLocation(ui->device, x, y)) return JNI_FALSE;
-  if (!writeKeyEvent(ui->device, BTN_LEFT, 1)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writePointerLocation(ui, x, y)) return JNI_FALSE;
+  if (!writeKeyEvent(ui, BTN_LEFT, 1)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 JAVA_METHOD(
@@ -389,9 +459,9 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writePointerLocation(ui->device, x, y)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writePointerLocation(ui, x, y)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 JAVA_METHOD(
@@ -400,39 +470,39 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeKeyEvent(ui->device, BTN_LEFT, 0)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeKeyEvent(ui, BTN_LEFT, 0)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 static int
-writeTouchX (int device, InputEventValue x) {
-  return writeAbsEvent(device, ABS_MT_POSITION_X, x);
+writeTouchX (UinputDescriptor *ui, InputEventValue x) {
+  return writeAbsEvent(ui, ABS_MT_POSITION_X, x);
 }
 
 static int
-writeTouchY (int device, InputEventValue y) {
-  return writeAbsEvent(device, ABS_MT_POSITION_Y, y);
+writeTouchY (UinputDescriptor *ui, InputEventValue y) {
+  return writeAbsEvent(ui, ABS_MT_POSITION_Y, y);
 }
 
 static int
-writeTouchLocation (int device, InputEventValue x, InputEventValue y) {
-  if (!writeTouchX(device, x)) return 0;
-  if (!writeTouchY(device, y)) return 0;
+writeTouchLocation (UinputDescriptor *ui, InputEventValue x, InputEventValue y) {
+  if (!writeTouchX(ui, x)) return 0;
+  if (!writeTouchY(ui, y)) return 0;
   return 1;
 }
 
 static int
-writeTouchDown (int device) {
+writeTouchDown (UinputDescriptor *ui) {
   static uint16_t identifier = 0;
-  if (!writeAbsEvent(device, ABS_MT_SLOT, 0)) return 0;
-  if (!writeAbsEvent(device, ABS_MT_TRACKING_ID, identifier++)) return 0;
+  if (!writeAbsEvent(ui, ABS_MT_SLOT, 0)) return 0;
+  if (!writeAbsEvent(ui, ABS_MT_TRACKING_ID, identifier++)) return 0;
   return 1;
 }
 
 static int
-writeTouchUp (int device) {
-  if (!writeAbsEvent(device, ABS_MT_TRACKING_ID, -1)) return 0;
+writeTouchUp (UinputDescriptor *ui) {
+  if (!writeAbsEvent(ui, ABS_MT_TRACKING_ID, -1)) return 0;
   return 1;
 }
 
@@ -475,10 +545,10 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeTouchDown(ui->device)) return JNI_FALSE;
-  if (!writeTouchLocation(ui->device, x, y)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeTouchDown(ui)) return JNI_FALSE;
+  if (!writeTouchLocation(ui, x, y)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 JAVA_METHOD(
@@ -487,9 +557,9 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeTouchLocation(ui->device, x, y)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeTouchLocation(ui, x, y)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
 
 JAVA_METHOD(
@@ -498,7 +568,7 @@ JAVA_METHOD(
 ) {
   UINPUT_DESCRIPTOR;
 
-  if (!writeTouchUp(ui->device)) return JNI_FALSE;
-  if (!writeSynReport(ui->device)) return JNI_FALSE;
-  return JNI_TRUE;
+  if (!writeTouchUp(ui)) return JNI_FALSE;
+  if (!writeSynReport(ui)) return JNI_FALSE;
+  return flushInputEvents(ui)? JNI_TRUE: JNI_FALSE;
 }
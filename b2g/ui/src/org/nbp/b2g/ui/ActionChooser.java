@@ -24,6 +24,7 @@ public class ActionChooser extends UserInterfaceComponent {
       if (needsCursorKey != haveCursorKey) continue;
 
       Action action = map.get(keys);
+      if (action == null) continue;
       if (action.isHidden()) continue;
       if (action.isAdvanced() && !ApplicationSettings.ADVANCED_ACTIONS) continue;
 
@@ -68,6 +68,7 @@ public abstract class ApplicationContext extends CommonContext {
           public void newTables () {
             synchronized (START_LOCK) {
               Controls.brailleCode.forgetItemLabels();
+              TranslationCache.clear();
               TranslationUtilities.refresh();
 
               if (ApplicationSettings.EVENT_MESSAGES) {
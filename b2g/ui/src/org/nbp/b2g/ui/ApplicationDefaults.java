@@ -30,6 +30,7 @@ public abstract class ApplicationDefaults {
   public final static GenericLevel BRAILLE_FIRMNESS = GenericLevel.MEDIUM;
   public final static boolean BRAILLE_MONITOR = false;
   public final static boolean BRAILLE_ENABLED = true;
+  public final static int TRANSLATION_LOOKAHEAD = 2; // lines
 
   public final static boolean SPEECH_ENABLED = true;
   public final static boolean SLEEP_TALK = false;
@@ -51,6 +52,8 @@ public abstract class ApplicationDefaults {
 
   public final static boolean REMOTE_DISPLAY = false;
   public final static boolean SECURE_CONNECTION = false;
+  public final static boolean NETWORK_ACCESS = false;
+  public final static RemoteConnection REMOTE_CONNECTION = RemoteConnection.BLUETOOTH;
 
   public final static DictionaryDatabase DICTIONARY_DATABASE = DictionaryDatabase.ALL;
   public final static boolean MULTIPLE_DEFINITIONS = false;
@@ -9,10 +9,14 @@ public abstract class ApplicationParameters extends CommonParameters {
   public final static char PASSWORD_CHARACTER = '*';
 
   public final static long IDLE_SCREEN_DELAY = 500; // milliseconds
+  public final static long ACCESSIBILITY_EVENT_COALESCE_DELAY = 20; // milliseconds
+  public final static long ACCESSIBILITY_EVENT_COALESCE_WINDOW = 250; // milliseconds
+  public final static int ACCESSIBILITY_EVENT_QUEUE_LIMIT = 200; // events
   public final static long LONG_PRESS_TIME = 500; // milliseconds
   public final static long PARTIAL_ENTRY_TIMEOUT = 2000; // milliseconds
 
   public final static long BRAILLE_MESSAGE_DURATION = 2000; // milliseconds
+  public final static int BRAILLE_MESSAGE_QUEUE_LIMIT = 5; // messages
   public final static long BRAILLE_POPUP_TIMEOUT = 30000; // milliseconds
   public final static int BRAILLE_SCROLL_KEEP = 3; // cells
 
@@ -38,10 +42,18 @@ public abstract class ApplicationParameters extends CommonParameters {
 
   public final static long REMOTE_DISPLAY_READ_TIMEOUT = 100; // milliseconds
   public final static String BLUETOOTH_SERVICE_NAME = "Braille Display";
+  public final static int REMOTE_DISPLAY_NETWORK_PORT = 35752;
+  public final static String REMOTE_DISPLAY_SOCKET_NAME = "org.nbp.b2g.ui.remote";
+  public final static long REMOTE_DISPLAY_RETRY_DELAY = 5000; // milliseconds
+  public final static int REMOTE_LATENCY_SAMPLE_COUNT = 0X400; // samples
 
   public final static long BRAILLE_WRITE_DELAY = 40; // milliseconds
   public final static long BRAILLE_REWRITE_DELAY = 50; // milliseconds
 
+  public final static int TRANSLATION_CACHE_SIZE = 2500; // entries
+  public final static long TRANSLATION_CACHE_COST = 0X200000; // bytes
+  public final static int TRANSLATION_CACHE_ENTRY_OVERHEAD = 0X80; // bytes
+
   public final static byte BRAILLE_CHARACTER_UNDEFINED =
     Braille.CELL_DOT_3|
     Braille.CELL_DOT_6|
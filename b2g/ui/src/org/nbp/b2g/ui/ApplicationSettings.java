@@ -28,6 +28,7 @@ public abstract class ApplicationSettings {
   public volatile static GenericLevel BRAILLE_FIRMNESS = ApplicationDefaults.BRAILLE_FIRMNESS;
   public volatile static boolean BRAILLE_MONITOR = ApplicationDefaults.BRAILLE_MONITOR;
   public volatile static boolean BRAILLE_ENABLED = ApplicationDefaults.BRAILLE_ENABLED;
+  public volatile static int TRANSLATION_LOOKAHEAD = ApplicationDefaults.TRANSLATION_LOOKAHEAD;
 
   public volatile static boolean SPEECH_ENABLED = ApplicationDefaults.SPEECH_ENABLED;
   public volatile static boolean SLEEP_TALK = ApplicationDefaults.SLEEP_TALK;
@@ -49,6 +50,8 @@ public abstract class ApplicationSettings {
 
   public volatile static boolean REMOTE_DISPLAY = ApplicationDefaults.REMOTE_DISPLAY;
   public volatile static boolean SECURE_CONNECTION = ApplicationDefaults.SECURE_CONNECTION;
+  public volatile static boolean NETWORK_ACCESS = ApplicationDefaults.NETWORK_ACCESS;
+  public volatile static RemoteConnection REMOTE_CONNECTION = ApplicationDefaults.REMOTE_CONNECTION;
 
   public volatile static DictionaryDatabase DICTIONARY_DATABASE = ApplicationDefaults.DICTIONARY_DATABASE;
   public volatile static boolean MULTIPLE_DEFINITIONS = ApplicationDefaults.MULTIPLE_DEFINITIONS;
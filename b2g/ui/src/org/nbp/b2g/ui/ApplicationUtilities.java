@@ -91,11 +91,23 @@ public abstract class ApplicationUtilities {
     return ApplicationUtilities.say(characters);
   }
 
-  public static void message (String text) {
-    Devices.braille.get().message(text);
+  public static void message (String text, BrailleDevice.MessagePriority priority) {
+    Devices.braille.get().message(text, priority);
     say(text);
   }
 
+  public static void message (String text) {
+    message(text, BrailleDevice.MessagePriority.NORMAL);
+  }
+
+  public static void alert (String text) {
+    message(text, BrailleDevice.MessagePriority.URGENT);
+  }
+
+  public static void alert (int resource) {
+    alert(ApplicationContext.getString(resource));
+  }
+
   public static void message (String format, Object... arguments) {
     message(String.format(format, arguments));
   }
@@ -112,7 +124,7 @@ public abstract class ApplicationUtilities {
     StringBuilder sb = new StringBuilder();
     sb.append(Math.round((index / count) * 100.0));
     sb.append('%');
-    message(sb);
+    message(sb.toString(), BrailleDevice.MessagePriority.LOW);
   }
 
   public static void message (int index, int count) {
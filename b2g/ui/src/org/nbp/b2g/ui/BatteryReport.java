@@ -8,6 +8,11 @@ public abstract class BatteryReport {
   }
 
   private final static Timeout reportInterval = new Timeout(ApplicationParameters.BATTERY_REPORT_INTERVAL, "battery-report-interval") {
+    @Override
+    protected boolean isBlocking () {
+      return true;
+    }
+
     @Override
     public void run () {
       report();
@@ -1,8 +1,8 @@
 package org.nbp.b2g.ui;
 
 import java.util.Arrays;
-import java.util.Queue;
 import java.util.LinkedList;
+import java.util.Iterator;
 
 import org.nbp.common.Braille;
 import org.nbp.common.Timeout;
@@ -39,6 +39,11 @@ public abstract class BrailleDevice {
   protected abstract boolean clearCells ();
   protected abstract boolean writeCells (byte[] cells);
 
+  // the cells outside of [from, to) are the same as those being shown
+  protected boolean writeCells (byte[] cells, int from, int to) {
+    return writeCells(cells);
+  }
+
   private class WriteElement {
     public final byte[] cells = new byte[getLength()];
     public final CharSequence text;
@@ -63,11 +68,86 @@ public abstract class BrailleDevice {
   private CharSequence brailleText = null;
   private boolean writePending = false;
 
-  private final Queue<WriteElement> messageQueue = new LinkedList<WriteElement>();
+  private byte[] shownCells = null;
+  private byte[] scratchCells = null;
+
+  public enum MessagePriority {
+    LOW, // transient status - a newer one replaces it
+    NORMAL,
+    URGENT;
+  }
+
+  private final static class PendingMessage {
+    public final String text;
+    public MessagePriority priority;
+
+    public PendingMessage (String text, MessagePriority priority) {
+      this.text = text;
+      this.priority = priority;
+    }
+  }
+
+  private final LinkedList<PendingMessage> messageQueue = new LinkedList<PendingMessage>();
   private boolean messageActive = false;
+  private PendingMessage activeMessage = null;
+
+  private long droppedMessageCount = 0;
+  private long mergedMessageCount = 0;
+  private long preemptedMessageCount = 0;
+
+  private final PendingMessage findPendingMessage (String text) {
+    for (PendingMessage message : messageQueue) {
+      if (message.text.equals(text)) return message;
+    }
+
+    return null;
+  }
+
+  private final void removeLowMessages () {
+    Iterator<PendingMessage> iterator = messageQueue.iterator();
+
+    while (iterator.hasNext()) {
+      if (iterator.next().priority == MessagePriority.LOW) {
+        iterator.remove();
+        mergedMessageCount += 1;
+      }
+    }
+  }
+
+  // the highest priority is taken first and, within a priority, the oldest
+  private final PendingMessage takePendingMessage () {
+    PendingMessage next = null;
+
+    for (PendingMessage message : messageQueue) {
+      if ((next == null) || (message.priority.compareTo(next.priority) > 0)) next = message;
+    }
+
+    if (next != null) messageQueue.remove(next);
+    return next;
+  }
+
+  // returns false if the new message is the one that should be dropped
+  private final boolean makeRoomForMessage (MessagePriority priority) {
+    if (messageQueue.size() < ApplicationParameters.BRAILLE_MESSAGE_QUEUE_LIMIT) return true;
+
+    PendingMessage victim = null;
+    for (PendingMessage message : messageQueue) {
+      if ((victim == null) || (message.priority.compareTo(victim.priority) < 0)) victim = message;
+    }
+
+    if (priority.compareTo(victim.priority) < 0) return false;
+    messageQueue.remove(victim);
+    droppedMessageCount += 1;
+    return true;
+  }
 
   private final Timeout writeDelay =
     new Timeout(ApplicationParameters.BRAILLE_WRITE_DELAY, "braille-device-write-delay") {
+      @Override
+      protected boolean isBlocking () {
+        return true;
+      }
+
       @Override
       public void run () {
         synchronized (BrailleDevice.this) {
@@ -78,6 +158,7 @@ public abstract class BrailleDevice {
 
   private final void logCells (byte[] cells, String reason, CharSequence text) {
     boolean log = ApplicationSettings.LOG_BRAILLE;
+    if (!log && (text == null)) return;
     String braille = Braille.toString(cells);
 
     if (log) {
@@ -114,8 +195,23 @@ public abstract class BrailleDevice {
     }
 
     if (ApplicationSettings.BRAILLE_ENABLED) {
-      if (!writeCells(cells)) {
-        return false;
+      if (shownCells == null) {
+        if (!writeCells(cells)) return false;
+        shownCells = Arrays.copyOf(cells, cells.length);
+      } else {
+        int length = cells.length;
+        int from = 0;
+        while ((from < length) && (cells[from] == shownCells[from])) from += 1;
+
+        if (from < length) {
+          int to = length;
+          while (cells[to-1] == shownCells[to-1]) to -= 1;
+
+          if (!writeCells(cells, from, to)) return false;
+          System.arraycopy(cells, from, shownCells, from, (to - from));
+        } else if (ApplicationSettings.LOG_BRAILLE) {
+          Log.d(LOG_TAG, ("braille cells unchanged: " + reason));
+        }
       }
     }
 
@@ -127,12 +223,15 @@ public abstract class BrailleDevice {
     long delay = ApplicationParameters.BRAILLE_REWRITE_DELAY;
 
     if (immediate) {
-      WriteElement message = messageQueue.poll();
+      PendingMessage pending = takePendingMessage();
       byte[] cells;
       CharSequence text;
       String reason;
 
-      if (message != null) {
+      if (pending != null) {
+        // translate only once it's actually going to be shown
+        WriteElement message = new WriteElement(pending.text);
+        activeMessage = pending;
         messageActive = true;
         writePending = true;
 
@@ -141,6 +240,7 @@ public abstract class BrailleDevice {
         reason = "message";
         delay = ApplicationParameters.BRAILLE_MESSAGE_DURATION;
       } else {
+        activeMessage = null;
         messageActive = false;
         if (!writePending) return true;
         writePending = false;
@@ -184,7 +284,11 @@ public abstract class BrailleDevice {
           brailleText = "";
           writePending = false;
 
+          shownCells = null;
+          scratchCells = null;
+
           messageQueue.clear();
+          activeMessage = null;
           messageActive = false;
 
           if (clearCells()) {
@@ -213,6 +317,8 @@ public abstract class BrailleDevice {
 
         if (isConnected()) {
           brailleCells = null;
+          shownCells = null;
+          scratchCells = null;
           disconnectDevice();
         }
       }
@@ -228,6 +334,11 @@ public abstract class BrailleDevice {
   }
 
   public final boolean setEnabled (boolean enabled) {
+    synchronized (this) {
+      // the device's cells aren't kept up to date while it's disabled
+      shownCells = null;
+    }
+
     return enabled? enable(): disable();
   }
 
@@ -273,6 +384,11 @@ public abstract class BrailleDevice {
           return true;
         }
 
+        if (cells == scratchCells) {
+          // swap the buffers so that the previous frame becomes the next scratch
+          scratchCells = brailleCells;
+        }
+
         brailleCells = cells;
         writePending = true;
         logCells(brailleCells, "updated");
@@ -283,12 +399,18 @@ public abstract class BrailleDevice {
 
   public final boolean write (Endpoint endpoint) {
     synchronized (endpoint) {
-      int length = getLength();
-      if (length == 0) return false;
+      synchronized (writeDelay) {
+        synchronized (this) {
+          int length = getLength();
+          if (length == 0) return false;
+
+          byte[] cells = scratchCells;
+          if ((cells == null) || (cells.length != length)) cells = scratchCells = new byte[length];
 
-      byte[] cells = new byte[length];
-      CharSequence text = BrailleUtilities.setCells(cells, endpoint);
-      return write(text, cells);
+          CharSequence text = BrailleUtilities.setCells(cells, endpoint);
+          return write(text, cells);
+        }
+      }
     }
   }
 
@@ -304,6 +426,7 @@ public abstract class BrailleDevice {
     synchronized (writeDelay) {
       synchronized (this) {
         messageQueue.clear();
+        activeMessage = null;
         messageActive = false;
         writeDelay.cancel();
         refresh();
@@ -311,12 +434,44 @@ public abstract class BrailleDevice {
     }
   }
 
-  public final boolean message (CharSequence text) {
+  public final boolean message (CharSequence text, MessagePriority priority) {
+    String string = text.toString();
+
     synchronized (writeDelay) {
       synchronized (this) {
         if (connect()) {
-          messageQueue.offer(new WriteElement(text));
-          if (messageActive) return true;
+          {
+            if (priority == MessagePriority.LOW) removeLowMessages();
+            PendingMessage message = findPendingMessage(string);
+
+            if ((message == null) && messageActive) {
+              if (activeMessage.text.equals(string)) message = activeMessage;
+            }
+
+            if (message != null) {
+              mergedMessageCount += 1;
+              if (priority.compareTo(message.priority) > 0) message.priority = priority;
+              if (message == activeMessage) return true;
+            } else if (makeRoomForMessage(priority)) {
+              messageQueue.add(new PendingMessage(string, priority));
+            } else {
+              droppedMessageCount += 1;
+              return true;
+            }
+          }
+
+          if (messageActive) {
+            boolean supersedes = (priority == MessagePriority.LOW)
+                              && (activeMessage.priority == MessagePriority.LOW);
+
+            if (!supersedes) {
+              if (priority.compareTo(activeMessage.priority) <= 0) return true;
+            }
+
+            preemptedMessageCount += 1;
+            droppedMessageCount += 1;
+          }
+
           if (writeCells(true)) return true;
         }
       }
@@ -325,6 +480,20 @@ public abstract class BrailleDevice {
     return false;
   }
 
+  public final boolean message (CharSequence text) {
+    return message(text, MessagePriority.NORMAL);
+  }
+
+  public final String getMessageStatistics () {
+    synchronized (this) {
+      return String.format(
+        "pending:%d dropped:%d merged:%d preempted:%d",
+        messageQueue.size(),
+        droppedMessageCount, mergedMessageCount, preemptedMessageCount
+      );
+    }
+  }
+
   public BrailleDevice () {
   }
 }
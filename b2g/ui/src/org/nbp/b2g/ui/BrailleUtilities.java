@@ -25,8 +25,8 @@ public abstract class BrailleUtilities {
 
     while (index < count) {
       char character = text.charAt(index);
-      Byte dots = characters.toDots(character);
-      cells[index++] = (dots != null)? dots: ApplicationParameters.BRAILLE_CHARACTER_UNDEFINED;
+      int dots = characters.toCell(character);
+      cells[index++] = (dots != Characters.UNDEFINED_DOTS)? (byte)dots: ApplicationParameters.BRAILLE_CHARACTER_UNDEFINED;
     }
 
     clearCells(cells, index);
@@ -4,8 +4,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.ArrayList;
 
-import java.util.Map;
-import java.util.HashMap;
+import java.util.Arrays;
 
 import java.util.Locale;
 
@@ -43,14 +42,23 @@ public class Characters {
     }
   }
 
-  private final Map<Byte, Character> characterMap = new HashMap<Byte, Character>();
+  public final static char UNDEFINED_CHARACTER = 0XFFFF;
+  public final static int UNDEFINED_DOTS = -1;
+
+  private final char[] characterTable = new char[0X100];
 
   private final void setCharacter (Byte dots, Character character) {
-    characterMap.put(dots, character);
+    characterTable[dots & 0XFF] = character;
+  }
+
+  public final char toCharacter (byte dots) {
+    return characterTable[dots & 0XFF];
   }
 
   public final Character getCharacter (Byte dots) {
-    return characterMap.get(dots);
+    char character = toCharacter(dots);
+    if (character == UNDEFINED_CHARACTER) return null;
+    return character;
   }
 
   public final Character getCharacter (KeySet keys) {
@@ -59,45 +67,82 @@ public class Characters {
     return getCharacter(dots);
   }
 
-  private final Map<Character, Byte> dotsMap = new HashMap<Character, Byte>();
+  // the dots for each character are kept in pages of 256 entries
+  // a zero entry hasn't been resolved yet
+  private final static short DOTS_DEFINED   = 0X100;
+  private final static short DOTS_UNDEFINED = 0X200;
+
+  private final static int PAGE_SHIFT = 8;
+  private final static int PAGE_SIZE = 1 << PAGE_SHIFT;
+  private final static int PAGE_MASK = PAGE_SIZE - 1;
+
+  private final short[][] dotsPages = new short[(Character.MAX_VALUE + 1) >> PAGE_SHIFT][];
+
+  private final int getEntry (char character) {
+    short[] page = dotsPages[character >> PAGE_SHIFT];
+    if (page == null) return 0;
+    return page[character & PAGE_MASK];
+  }
+
+  private final void setEntry (char character, int entry) {
+    int index = character >> PAGE_SHIFT;
+    short[] page = dotsPages[index];
+    if (page == null) dotsPages[index] = page = new short[PAGE_SIZE];
+    page[character & PAGE_MASK] = (short)entry;
+  }
 
   private final void setDots (Character character, Byte dots) {
-    dotsMap.put(character, dots);
+    setEntry(character, ((dots & 0XFF) | DOTS_DEFINED));
   }
 
   private final Byte getDots (Character character) {
-    return dotsMap.get(character);
+    int entry = getEntry(character);
+    if ((entry & DOTS_DEFINED) == 0) return null;
+    return (byte)entry;
   }
 
-  public final Byte toDots (char character) {
-    {
-      Byte dots = getDots(character);
-      if (dots != null) return dots;
-    }
+  private final synchronized int resolveDots (char character) {
+    int entry = getEntry(character);
 
-    {
+    if (entry == 0) {
       Byte dots = Braille.toCell(character);
 
       if (dots != null) {
-        setDots(character, dots);
-        return dots;
+        entry = (dots & 0XFF) | DOTS_DEFINED;
+      } else {
+        char base = UnicodeUtilities.getBaseCharacter(character);
+        int dotsValue = (base != character)? toCell(base): UNDEFINED_DOTS;
+        entry = (dotsValue != UNDEFINED_DOTS)? (dotsValue | DOTS_DEFINED): DOTS_UNDEFINED;
       }
+
+      setEntry(character, entry);
     }
 
+    if ((entry & DOTS_DEFINED) == 0) return UNDEFINED_DOTS;
+    return entry & 0XFF;
+  }
+
+  public final int toCell (char character) {
     {
-      char base = UnicodeUtilities.getBaseCharacter(character);
+      short[] page = dotsPages[character >> PAGE_SHIFT];
 
-      if (base != character) {
-        Byte dots = getDots(base);
+      if (page != null) {
+        int entry = page[character & PAGE_MASK];
 
-        if (dots != null) {
-          setDots(character, dots);
-          return dots;
+        if (entry != 0) {
+          if ((entry & DOTS_DEFINED) == 0) return UNDEFINED_DOTS;
+          return entry & 0XFF;
         }
       }
     }
 
-    return null;
+    return resolveDots(character);
+  }
+
+  public final Byte toDots (char character) {
+    int dots = toCell(character);
+    if (dots == UNDEFINED_DOTS) return null;
+    return (byte)dots;
   }
 
   private static Character parseEscapeSequence (String sequence) {
@@ -278,6 +323,8 @@ public class Characters {
   }
 
   public Characters (String[] names) {
+    Arrays.fill(characterTable, UNDEFINED_CHARACTER);
+
     {
       final int length = names.length;
 
@@ -44,6 +44,7 @@ public abstract class Controls {
   public final static BrailleFirmnessControl brailleFirmness = new BrailleFirmnessControl();
   public final static BrailleMonitorControl brailleMonitor = new BrailleMonitorControl();
   public final static BrailleEnabledControl brailleEnabled = new BrailleEnabledControl();
+  public final static TranslationLookaheadControl translationLookahead = new TranslationLookaheadControl();
 
   // speech settings
   public final static SpeechEnabledControl speechEnabled = new SpeechEnabledControl();
@@ -69,6 +70,8 @@ public abstract class Controls {
   // remote settings
   public final static RemoteDisplayControl remoteDisplay = new RemoteDisplayControl();
   public final static SecureConnectionControl secureConnection = new SecureConnectionControl();
+  public final static NetworkAccessControl networkAccess = new NetworkAccessControl();
+  public final static RemoteConnectionControl remoteConnection = new RemoteConnectionControl();
 
   // dictionary settings
   public final static DictionaryDatabaseControl dictionaryDatabase = new DictionaryDatabaseControl();
@@ -101,6 +104,7 @@ public abstract class Controls {
     brailleEnabled.addDependencies(showHighlighted, showNotifications);
     brailleEnabled.addDependencies(literaryBraille);
     literaryBraille.addDependencies(brailleCode, computerBraille);
+    literaryBraille.addDependencies(translationLookahead);
     computerBraille.addDependencies(wordWrap);
 
     sleepTalk.addDependencies(speechEnabled);
@@ -109,7 +113,7 @@ public abstract class Controls {
     speechEnabled.addDependencies(logSpeech, speechEngine);
 
     oneHand.addDependencies(spaceTimeout, pressedTimeout);
-    remoteDisplay.addDependencies(secureConnection);
+    remoteDisplay.addDependencies(secureConnection, remoteConnection);
   }
 
   public final static Control[] inCreationOrder = Control.getControlsInCreationOrder();
@@ -243,7 +243,9 @@ public abstract class Endpoint extends UserInterfaceComponent {
   }
 
   private final boolean retrieveTranslation () {
-    Translation translation = TranslationCache.get(lineText);
+    Translation translation = TranslationCache.get(
+      lineText, ApplicationSettings.BRAILLE_CODE.getTranslator(), !isInputArea()
+    );
 
     if (translation != null) {
       if (translation instanceof BrailleTranslation) {
@@ -261,8 +263,9 @@ public abstract class Endpoint extends UserInterfaceComponent {
   }
 
   private final void makeTranslation () {
-    brailleTranslation = TranslationUtilities.newBrailleTranslation(lineText, !isInputArea());
-    TranslationCache.put(lineText, brailleTranslation);
+    boolean includeHighlighting = !isInputArea();
+    brailleTranslation = TranslationUtilities.newBrailleTranslation(lineText, includeHighlighting);
+    TranslationCache.put(lineText, brailleTranslation, includeHighlighting);
   }
 
   private final void refreshBrailleTranslation () {
@@ -335,7 +338,7 @@ public abstract class Endpoint extends UserInterfaceComponent {
       textTranslation = null;
     }
 
-    TranslationCache.put(text, translation);
+    TranslationCache.put(text, translation, !isInputArea());
 
     if (false) {
       logText(translation.getInputTag(), translation.getSuppliedInput());
@@ -376,28 +379,15 @@ public abstract class Endpoint extends UserInterfaceComponent {
 
   public final int findFirstBrailleOffset (int textOffset) {
     int braille = getBrailleOffset(textOffset);
-    int text = getLineOffset(braille);
-
-    while (braille > 0) {
-      int next = braille - 1;
-      if (getLineOffset(next) != text) break;
-      braille = next;
-    }
-
+    if (textTranslation != null) return textTranslation.findFirstBrailleOffset(braille);
+    if (brailleTranslation != null) return brailleTranslation.findFirstBrailleOffset(braille);
     return braille;
   }
 
   public final int findLastBrailleOffset (int textOffset) {
     int braille = getBrailleOffset(textOffset);
-    int text = getLineOffset(braille);
-    int length = getBrailleLength();
-
-    while (braille < length) {
-      int next = braille + 1;
-      if (getLineOffset(next) != text) break;
-      braille = next;
-    }
-
+    if (textTranslation != null) return textTranslation.findLastBrailleOffset(braille);
+    if (brailleTranslation != null) return brailleTranslation.findLastBrailleOffset(braille);
     return braille;
   }
 
@@ -511,28 +501,183 @@ public abstract class Endpoint extends UserInterfaceComponent {
   private int lineStart;
   private int lineIndent;
 
+  private LineIndex lineIndex = null;
+  private int lineScanCost = 0;
+
+  private CharSequence editedText = null;
+  private int editStart;
+  private int editEnd;
+  private CharSequence editInsertion;
+
+  private final LineIndex getLineIndex () {
+    if (lineIndex == null) lineIndex = new LineIndex(textString);
+    return lineIndex;
+  }
+
+  private final LineIndex getLineIndex (int scanCost) {
+    if (lineIndex == null) {
+      // only build the index once scanning has cost as much as building it would
+      lineScanCost += scanCost;
+      if (lineScanCost < textString.length()) return null;
+    }
+
+    return getLineIndex();
+  }
+
+  private static boolean regionMatches (CharSequence text, int offset, CharSequence other, int from, int count) {
+    while (count-- > 0) {
+      if (text.charAt(offset++) != other.charAt(from++)) return false;
+    }
+
+    return true;
+  }
+
+  // comparing all of the text would cost as much as rebuilding the index so
+  // only its length, the insertion, and the characters around it are checked
+  private final static int EDIT_CHECK_MARGIN = 0X20;
+
+  private final boolean isEditedText (CharSequence text) {
+    if (editedText == null) return false;
+
+    int insertionLength = editInsertion.length();
+    int tailLength = editedText.length() - editEnd;
+    if (text.length() != (editStart + insertionLength + tailLength)) return false;
+
+    int before = Math.min(EDIT_CHECK_MARGIN, editStart);
+    int after = Math.min(EDIT_CHECK_MARGIN, tailLength);
+
+    return regionMatches(text, (editStart - before), editedText, (editStart - before), before)
+        && regionMatches(text, editStart, editInsertion, 0, insertionLength)
+        && regionMatches(text, (editStart + insertionLength), editedText, editEnd, after);
+  }
+
+  private final void resetLineIndex (CharSequence text) {
+    if ((lineIndex != null) && isEditedText(text)) {
+      // the index has already been adjusted for this change
+    } else {
+      lineIndex = null;
+    }
+
+    lineScanCost = 0;
+    editedText = null;
+    editInsertion = null;
+  }
+
+  // called before the edited text is set so that the index needn't be rebuilt
+  protected final void adjustLineIndex (int start, int end, CharSequence text) {
+    if (lineIndex != null) {
+      if ((editedText == null) && (start >= 0) && (start <= end) && (end <= textString.length())) {
+        lineIndex.replace(start, end, text);
+        editedText = textString;
+        editStart = start;
+        editEnd = end;
+        editInsertion = text.toString();
+      } else {
+        // edits which haven't arrived yet can't be chained
+        lineIndex = null;
+        editedText = null;
+        editInsertion = null;
+      }
+    }
+  }
+
   public int findPreviousNewline (int offset) {
     int length = textString.length();
     if (offset > length) offset = length;
 
+    {
+      LineIndex index = getLineIndex(0);
+      if (index != null) return index.findPreviousNewline(offset);
+    }
+
+    int from = offset;
+
     while (offset > 0) {
-      if (textString.charAt(--offset) == '\n') return offset;
+      if (textString.charAt(--offset) == '\n') {
+        getLineIndex(from - offset);
+        return offset;
+      }
     }
 
+    getLineIndex(from);
     return -1;
   }
 
   public int findNextNewline (int offset) {
     int length = textString.length();
 
+    {
+      LineIndex index = getLineIndex(0);
+      if (index != null) return index.findNextNewline(offset);
+    }
+
+    int from = offset;
+
     while (offset < length) {
-      if (textString.charAt(offset) == '\n') return offset;
+      if (textString.charAt(offset) == '\n') {
+        getLineIndex(offset - from);
+        return offset;
+      }
+
       offset += 1;
     }
 
+    getLineIndex(length - from);
     return -1;
   }
 
+  private CharSequence prefetchedText = null;
+  private int prefetchedLineStart = -1;
+
+  private final void prefetchTranslations () {
+    if (!ApplicationSettings.LITERARY_BRAILLE) return;
+
+    final int count = ApplicationSettings.TRANSLATION_LOOKAHEAD;
+    if (count < 1) return;
+
+    if (textString == prefetchedText) {
+      if (lineStart == prefetchedLineStart) {
+        return;
+      }
+    }
+
+    prefetchedText = textString;
+    prefetchedLineStart = lineStart;
+
+    final int length = getTextLength();
+    CharSequence[] lines = new CharSequence[count * 2];
+    int lineCount = 0;
+
+    int previousStart = lineStart;
+    int nextStart = lineStart + lineText.length() + 1;
+
+    for (int index=0; index<count; index+=1) {
+      if (nextStart <= length) {
+        int end = findNextNewline(nextStart);
+        if (end == -1) end = length;
+
+        lines[lineCount++] = textString.subSequence(nextStart, end);
+        nextStart = end + 1;
+      }
+
+      if (previousStart > 0) {
+        int end = previousStart - 1;
+        int start = findPreviousNewline(end) + 1;
+
+        lines[lineCount++] = textString.subSequence(start, end);
+        previousStart = start;
+      }
+    }
+
+    if (lineCount < lines.length) {
+      CharSequence[] array = new CharSequence[lineCount];
+      System.arraycopy(lines, 0, array, 0, lineCount);
+      lines = array;
+    }
+
+    TranslationPrefetcher.prefetch(lines, !isInputArea());
+  }
+
   public int setLine (int textOffset) {
     lineStart = findPreviousNewline(textOffset) + 1;
 
@@ -541,6 +686,7 @@ public abstract class Endpoint extends UserInterfaceComponent {
 
     lineText = textString.subSequence(lineStart, lineEnd);
     refreshBrailleTranslation();
+    prefetchTranslations();
 
     return textOffset - lineStart;
   }
@@ -565,6 +711,7 @@ public abstract class Endpoint extends UserInterfaceComponent {
   }
 
   protected void setText (CharSequence text, boolean stay) {
+    resetLineIndex(text);
     textString = text;
     softEdges = false;
     copyStart = NO_COPY;
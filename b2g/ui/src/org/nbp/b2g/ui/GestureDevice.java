@@ -19,28 +19,28 @@ public abstract class GestureDevice extends UInputDevice implements GestureInjec
   }
 
   @Override
-  public boolean gestureBegin (int x, int y, int fingers) {
+  public synchronized boolean gestureBegin (int x, int y, int fingers) {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
     return gestureBegin(uinput, x, y, fingers);
   }
 
   @Override
-  public boolean gestureMove (int x, int y) {
+  public synchronized boolean gestureMove (int x, int y) {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
     return gestureMove(uinput, x, y);
   }
 
   @Override
-  public boolean gestureEnd () {
+  public synchronized boolean gestureEnd () {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
     return gestureEnd(uinput);
   }
 
   @Override
-  public boolean gestureEnd (int x, int y) {
+  public synchronized boolean gestureEnd (int x, int y) {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
 
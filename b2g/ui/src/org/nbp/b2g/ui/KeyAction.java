@@ -19,30 +19,40 @@ public abstract class KeyAction extends Action {
     protected abstract boolean injectKeyPress (int key);
     protected abstract boolean injectKeyRelease (int key);
 
-    private boolean injectKeyEvent (int key, boolean press) {
-      return press? injectKeyPress(key): injectKeyRelease(key);
+    protected boolean injectKeyPresses (int[] keys) {
+      for (int key : keys) {
+        if (!injectKeyPress(key)) return false;
+      }
+
+      return true;
     }
 
-    private boolean injectModifiers (int[] modifiers, boolean press) {
-      if (modifiers != null) {
-        for (int modifier : modifiers) {
-          if (!injectKeyEvent(modifier, press)) return false;
-        }
+    protected boolean injectKeyReleases (int[] keys) {
+      for (int key : keys) {
+        if (!injectKeyRelease(key)) return false;
       }
 
       return true;
     }
 
     public final boolean injectKeyCombination (int key, int[] modifiers) {
-      if (injectModifiers(modifiers, true)) {
-        if (injectKeyEvent(key, true)) {
-          waitForHoldTime();
-
-          if (injectKeyEvent(key, false)) {
-            if (injectModifiers(modifiers, false)) {
-              return true;
-            }
-          }
+      int count = (modifiers != null)? modifiers.length: 0;
+      int[] presses = new int[count + 1];
+      int[] releases = new int[count + 1];
+
+      if (count > 0) {
+        System.arraycopy(modifiers, 0, presses, 0, count);
+        System.arraycopy(modifiers, 0, releases, 1, count);
+      }
+
+      presses[count] = key;
+      releases[0] = key;
+
+      if (injectKeyPresses(presses)) {
+        waitForHoldTime();
+
+        if (injectKeyReleases(releases)) {
+          return true;
         }
       }
 
@@ -2,8 +2,53 @@ package org.nbp.b2g.ui;
 
 import java.util.LinkedHashMap;
 
+import java.util.Map;
+import java.util.HashMap;
+
 public class KeyBindingMap extends LinkedHashMap<KeySet, Action> {
-  public KeyBindingMap () {
+  public interface ActionMaker {
+    public Action makeAction (Class<? extends Action> type);
+  }
+
+  private final ActionMaker actionMaker;
+  private Map<KeySet, Class<? extends Action>> pendingTypes = null;
+
+  // the action isn't constructed until the binding is first looked up
+  public final synchronized void putActionType (KeySet keys, Class<? extends Action> type) {
+    if (pendingTypes == null) pendingTypes = new HashMap<KeySet, Class<? extends Action>>();
+    pendingTypes.put(keys, type);
+    super.put(keys, null);
+  }
+
+  @Override
+  public synchronized Action put (KeySet keys, Action action) {
+    if (pendingTypes != null) pendingTypes.remove(keys);
+    return super.put(keys, action);
+  }
+
+  @Override
+  public synchronized Action get (Object keys) {
+    Action action = super.get(keys);
+    if (action != null) return action;
+    if (pendingTypes == null) return null;
+
+    Class<? extends Action> type = pendingTypes.remove(keys);
+    if (type == null) return null;
+    if (actionMaker == null) return null;
+
+    // replacing the value of an existing key isn't a structural modification
+    // so this is safe while the key set is being iterated
+    action = actionMaker.makeAction(type);
+    if (action != null) super.put((KeySet)keys, action);
+    return action;
+  }
+
+  public KeyBindingMap (ActionMaker maker) {
     super();
+    actionMaker = maker;
+  }
+
+  public KeyBindingMap () {
+    this(null);
   }
 }
@@ -0,0 +1,324 @@
+package org.nbp.b2g.ui;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+
+import java.util.regex.Pattern;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+
+import org.nbp.common.DirectiveProcessor;
+
+import android.util.Log;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+public abstract class KeyBindingTable {
+  private final static String LOG_TAG = KeyBindingTable.class.getName();
+
+  private KeyBindingTable () {
+  }
+
+  public final static class Binding {
+    private final KeySet[] keySets;
+    private final String actionName;
+
+    public final KeySet[] getKeySets () {
+      return keySets;
+    }
+
+    public final String getActionName () {
+      return actionName;
+    }
+
+    public Binding (KeySet[] keySets, String actionName) {
+      this.keySets = keySets;
+      this.actionName = actionName;
+    }
+  }
+
+  private final static Pattern KEY_COMBINATION_PATTERN = Pattern.compile(
+    "\\" + KeyBindings.KEY_COMBINATION_DELIMITER
+  );
+
+  private final static Pattern KEY_NAME_PATTERN = Pattern.compile(
+    "\\" + KeyBindings.KEY_NAME_DELIMITER
+  );
+
+  private static KeySet[] addKeySet (KeySet[] oldSets, KeySet set) {
+    KeySet[] newSets;
+
+    if (set == null) {
+      Log.w(LOG_TAG, "missing key combination");
+      return null;
+    }
+
+    if (oldSets == null) {
+      newSets = new KeySet[1];
+    } else {
+      newSets = new KeySet[oldSets.length + 1];
+      System.arraycopy(oldSets, 0, newSets, 0, oldSets.length);
+    }
+
+    newSets[newSets.length - 1] = set;
+    return newSets;
+  }
+
+  private static KeySet[] parseKeyCombination (String operand) {
+    String[] combinations = KEY_COMBINATION_PATTERN.split(operand);
+    KeySet[] sets = null;
+
+    for (String combination : combinations) {
+      if (combination.isEmpty()) {
+        Log.w(LOG_TAG, "missing key combination: " + operand);
+        return null;
+      }
+
+      String[] names = KEY_NAME_PATTERN.split(combination);
+      KeySet set = new KeySet();
+
+      for (String name : names) {
+        {
+          int comment = name.indexOf('#');
+          if (comment >= 0) name = name.substring(0, comment);
+        }
+
+        if (name.isEmpty()) {
+          Log.w(LOG_TAG, "missing key name: " + combination);
+          return null;
+        }
+
+        KeySet keys = KeySet.fromName(name);
+        if (keys == null) return null;
+
+        if (set.intersects(keys)) {
+          Log.w(LOG_TAG, "key specified more than once: " + name);
+          return null;
+        }
+
+        set.add(keys);
+      }
+
+      sets = addKeySet(sets, set.freeze());
+      if (sets == null) return null;
+    }
+
+    return sets;
+  }
+
+  private static boolean addBinding (List<Binding> bindings, String[] operands) {
+    int index = 0;
+
+    if (index == operands.length) {
+      Log.w(LOG_TAG, "key combination not specified");
+      return true;
+    }
+
+    String keyCombination = operands[index++];
+    KeySet[] keySets = parseKeyCombination(keyCombination);
+    if (keySets == null) return true;
+
+    if (index == operands.length) {
+      Log.w(LOG_TAG, "action not specified");
+      return true;
+    }
+
+    String actionName = operands[index++];
+
+    if (index < operands.length) {
+      Log.w(LOG_TAG, "too many operands");
+    }
+
+    bindings.add(new Binding(keySets, actionName));
+    return true;
+  }
+
+  private static Binding[] parseTable (String name) {
+    final List<Binding> bindings = new ArrayList<Binding>();
+
+    new DirectiveProcessor()
+      .addDirective("bind",
+        new DirectiveProcessor.DirectiveHandler() {
+          @Override
+          public boolean handleDirective (String[] operands) {
+            return addBinding(bindings, operands);
+          }
+        }
+      )
+
+      .setSkipCommentLines(true)
+      .setTrimTrailingComments(true)
+      .processInput((name + ".keys"));
+
+    return bindings.toArray(new Binding[bindings.size()]);
+  }
+
+  // the binding files are assets so the table can only change with the package
+  private final static int CACHE_FORMAT = 1;
+
+  private static String getCacheStamp () {
+    Context context = ApplicationContext.getContext();
+    if (context == null) return null;
+
+    try {
+      PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+
+      return String.format(
+        "%d:%d:%d:%d", CACHE_FORMAT,
+        info.versionCode, info.lastUpdateTime, KeySet.maximumKeyboardCode
+      );
+    } catch (PackageManager.NameNotFoundException exception) {
+      Log.w(LOG_TAG, "package not found: " + context.getPackageName());
+    }
+
+    return null;
+  }
+
+  private static File getCacheFile (String name) {
+    Context context = ApplicationContext.getContext();
+    if (context == null) return null;
+
+    File directory = context.getDir(KeyBindingTable.class.getSimpleName(), Context.MODE_PRIVATE);
+    if (directory == null) return null;
+
+    return new File(directory, (name + ".keys.bin"));
+  }
+
+  private static Binding[] readTable (File file, String stamp) throws IOException {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+    try {
+      if (!input.readUTF().equals(stamp)) return null;
+
+      int bindingCount = input.readInt();
+      Binding[] bindings = new Binding[bindingCount];
+
+      for (int bindingIndex=0; bindingIndex<bindingCount; bindingIndex+=1) {
+        int setCount = input.readUnsignedByte();
+        KeySet[] keySets = new KeySet[setCount];
+
+        for (int setIndex=0; setIndex<setCount; setIndex+=1) {
+          int codeCount = input.readUnsignedByte();
+          int[] codes = new int[codeCount];
+
+          for (int codeIndex=0; codeIndex<codeCount; codeIndex+=1) {
+            codes[codeIndex] = input.readUnsignedShort();
+          }
+
+          keySets[setIndex] = new KeySet(codes).freeze();
+        }
+
+        bindings[bindingIndex] = new Binding(keySets, input.readUTF());
+      }
+
+      return bindings;
+    } finally {
+      input.close();
+    }
+  }
+
+  private static void writeTable (File file, String stamp, Binding[] bindings) throws IOException {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+    try {
+      output.writeUTF(stamp);
+      output.writeInt(bindings.length);
+
+      for (Binding binding : bindings) {
+        KeySet[] keySets = binding.getKeySets();
+        output.writeByte(keySets.length);
+
+        for (KeySet keys : keySets) {
+          output.writeByte(keys.size());
+
+          for (int code=keys.nextCode(0); code>=0; code=keys.nextCode(code+1)) {
+            output.writeShort(code);
+          }
+        }
+
+        output.writeUTF(binding.getActionName());
+      }
+    } finally {
+      output.close();
+    }
+  }
+
+  private static Binding[] loadTable (File file, String stamp) {
+    if (!file.exists()) return null;
+
+    try {
+      return readTable(file, stamp);
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("key binding cache not loaded: " + exception.getMessage()));
+    } catch (RuntimeException exception) {
+      Log.w(LOG_TAG, ("key binding cache not loaded: " + exception.getMessage()));
+    }
+
+    return null;
+  }
+
+  private static void saveTable (File file, String stamp, Binding[] bindings) {
+    File newFile = new File(file.getPath() + ".new");
+
+    try {
+      writeTable(newFile, stamp, bindings);
+
+      if (!newFile.renameTo(file)) {
+        Log.w(LOG_TAG, ("key binding cache not renamed: " + file.getAbsolutePath()));
+      }
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("key binding cache not saved: " + exception.getMessage()));
+    }
+
+    newFile.delete();
+  }
+
+  private static Binding[] compileTable (String name) {
+    String stamp = getCacheStamp();
+    File file = (stamp != null)? getCacheFile(name): null;
+
+    if (file != null) {
+      Binding[] bindings = loadTable(file, stamp);
+
+      if (bindings != null) {
+        Log.d(LOG_TAG, ("key binding cache loaded: " + name));
+        return bindings;
+      }
+    }
+
+    Log.d(LOG_TAG, "begin key binding definitions: " + name);
+    Binding[] bindings = parseTable(name);
+    Log.d(LOG_TAG, "end key binding definitions: " + name);
+
+    if (file != null) saveTable(file, stamp, bindings);
+    return bindings;
+  }
+
+  private final static Map<String, Binding[]> compiledTables =
+               new HashMap<String, Binding[]>();
+
+  public static Binding[] get (String name) {
+    synchronized (compiledTables) {
+      Binding[] bindings = compiledTables.get(name);
+
+      if (bindings == null) {
+        bindings = compileTable(name);
+        compiledTables.put(name, bindings);
+      }
+
+      return bindings;
+    }
+  }
+}
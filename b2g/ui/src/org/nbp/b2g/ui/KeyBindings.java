@@ -6,11 +6,6 @@ import java.lang.reflect.*;
 import java.util.Map;
 import java.util.HashMap;
 
-import java.util.regex.Pattern;
-
-import org.nbp.common.InputProcessor;
-import org.nbp.common.DirectiveProcessor;
-
 import org.nbp.common.Tones;
 
 import android.util.Log;
@@ -21,30 +16,34 @@ public class KeyBindings {
   public final static char KEY_COMBINATION_DELIMITER = ',';
   public final static char KEY_NAME_DELIMITER = '+';
 
-  private final static Pattern KEY_COMBINATION_PATTERN = Pattern.compile(
-    "\\" + KEY_COMBINATION_DELIMITER
-  );
-
-  private final static Pattern KEY_NAME_PATTERN = Pattern.compile(
-    "\\" + KEY_NAME_DELIMITER
-  );
-
   private final Endpoint endpoint;
 
-  private final Map<String, Class<? extends Action>> actionNameCache =
-        new HashMap<String, Class<? extends Action>>();
+  // shared by all endpoints - a missing class is cached as Action.class
+  private final static Map<String, Class<? extends Action>> actionNameCache =
+               new HashMap<String, Class<? extends Action>>();
+
+  private final static Map<Class<? extends Action>, Constructor> actionConstructorCache =
+               new HashMap<Class<? extends Action>, Constructor>();
 
   private final Map<Class<? extends Action>, Action> actionClassCache =
         new HashMap<Class<? extends Action>, Action>();
 
-  private final KeyBindingMap rootKeyBindings = new KeyBindingMap();
+  private final KeyBindingMap.ActionMaker actionMaker =
+    new KeyBindingMap.ActionMaker() {
+      @Override
+      public Action makeAction (Class<? extends Action> type) {
+        return getAction(type);
+      }
+    };
+
+  private final KeyBindingMap rootKeyBindings = new KeyBindingMap(actionMaker);
 
   public final KeyBindingMap getRootKeyBindingMap () {
     return rootKeyBindings;
   }
 
   private final class PartialEntry extends Action {
-    public final KeyBindingMap keyBindings = new KeyBindingMap();
+    public final KeyBindingMap keyBindings = new KeyBindingMap(actionMaker);
 
     @Override
     public boolean performAction () {
@@ -74,22 +73,21 @@ public class KeyBindings {
     return null;
   }
 
-  private final boolean addAction (KeyBindingMap bindings, KeySet keys, Action action) {
-    Action current = bindings.put(keys, action);
-    if (current == null) return true;
+  private final boolean isBound (KeyBindingMap bindings, KeySet keys, String name) {
+    if (!bindings.containsKey(keys)) return false;
+    Action current = bindings.get(keys);
 
     Log.w(LOG_TAG,
       String.format(
         "duplicate key binding: %s: %s & %s",
-        keys.toString(), current.getName(), action.getName()
+        keys.toString(), ((current != null)? current.getName(): "?"), name
       )
     );
 
-    bindings.put(keys, current);
-    return false;
+    return true;
   }
 
-  public boolean addKeyBinding (Action action, KeySet... keySets) {
+  private final KeyBindingMap getKeyBindingMap (KeySet... keySets) {
     KeyBindingMap bindings = rootKeyBindings;
     int last = keySets.length - 1;
 
@@ -98,24 +96,69 @@ public class KeyBindings {
       Action current = bindings.get(keySet);
 
       if (current == null) {
+        if (bindings.containsKey(keySet)) return null;
         current = new PartialEntry(endpoint);
-        addAction(bindings, keySet, current);
+        bindings.put(keySet, current);
       } else if (!isPartialEntry(current)) {
-        return false;
+        return null;
       }
 
       bindings = ((PartialEntry)current).keyBindings;
     }
 
-    return addAction(bindings, keySets[last], action);
+    return bindings;
+  }
+
+  public boolean addKeyBinding (Action action, KeySet... keySets) {
+    KeyBindingMap bindings = getKeyBindingMap(keySets);
+    if (bindings == null) return false;
+
+    KeySet keys = keySets[keySets.length - 1];
+    if (isBound(bindings, keys, action.getName())) return false;
+
+    bindings.put(keys, action);
+    return true;
+  }
+
+  private boolean addKeyBinding (Class<? extends Action> type, KeySet... keySets) {
+    KeyBindingMap bindings = getKeyBindingMap(keySets);
+    if (bindings == null) return false;
+
+    KeySet keys = keySets[keySets.length - 1];
+    if (isBound(bindings, keys, type.getSimpleName())) return false;
+
+    {
+      Action action = actionClassCache.get(type);
+
+      if (action != null) {
+        bindings.put(keys, action);
+      } else {
+        bindings.putActionType(keys, type);
+      }
+    }
+
+    return true;
+  }
+
+  private static Constructor getActionConstructor (Class<? extends Action> type) throws NoSuchMethodException {
+    synchronized (actionConstructorCache) {
+      Constructor constructor = actionConstructorCache.get(type);
+
+      if (constructor == null) {
+        Class[] arguments = new Class[] {Endpoint.class};
+        constructor = type.getConstructor(arguments);
+        actionConstructorCache.put(type, constructor);
+      }
+
+      return constructor;
+    }
   }
 
   private Action newAction (Class<? extends Action> type) {
     String name = type.getName();
 
     try {
-      Class[] arguments = new Class[] {Endpoint.class};
-      Constructor constructor = type.getConstructor(arguments);
+      Constructor constructor = getActionConstructor(type);
       return (Action)constructor.newInstance(endpoint);
     } catch (NoSuchMethodException exception) {
       Log.w(LOG_TAG, "constructor not found: " + name);
@@ -147,8 +190,8 @@ public class KeyBindings {
     }
   }
 
-  private Class<? extends Action> getActionClass (String name, Object owner) {
-    String className = owner.getClass().getPackage().getName() + ".actions." + name;
+  private static Class<? extends Action> getActionClass (String name, Class owner) {
+    String className = owner.getPackage().getName() + ".actions." + name;
 
     try {
       Class type = Class.forName(className);
@@ -161,140 +204,53 @@ public class KeyBindings {
   }
 
   private Class<? extends Action> getActionClass (String name) {
-    Class<? extends Action> type;
-
-    if ((type = getActionClass(name, endpoint)) != null) return type;
-    if ((type = getActionClass(name, this)) != null) return type;
-
-    Log.w(LOG_TAG, "unknown action: " + name);
-    return null;
-  }
-
-  private Action getAction (String name) {
-    Class<? extends Action> type = actionNameCache.get(name);
+    String key = endpoint.getClass().getPackage().getName() + ':' + name;
 
-    if (type == null) {
-      if ((type = getActionClass(name)) == null) return null;
-      actionNameCache.put(name, type);
-    }
-
-    return getAction(type);
-  }
-
-  private static KeySet[] addKeySet (KeySet[] oldSets, KeySet set) {
-    KeySet[] newSets;
-
-    if (set == null) {
-      Log.w(LOG_TAG, "missing key combination");
-      return null;
-    }
-
-    if (oldSets == null) {
-      newSets = new KeySet[1];
-    } else {
-      newSets = new KeySet[oldSets.length + 1];
-      System.arraycopy(oldSets, 0, newSets, 0, oldSets.length);
-    }
-
-    newSets[newSets.length - 1] = set;
-    return newSets;
-  }
-
-  private static KeySet[] parseKeyCombination (String operand) {
-    String[] combinations = KEY_COMBINATION_PATTERN.split(operand);
-    KeySet[] sets = null;
-
-    for (String combination : combinations) {
-      if (combination.isEmpty()) {
-        Log.w(LOG_TAG, "missing key combination: " + operand);
-        return null;
-      }
-
-      String[] names = KEY_NAME_PATTERN.split(combination);
-      KeySet set = new KeySet();
-
-      for (String name : names) {
-        {
-          int comment = name.indexOf('#');
-          if (comment >= 0) name = name.substring(0, comment);
-        }
-
-        if (name.isEmpty()) {
-          Log.w(LOG_TAG, "missing key name: " + combination);
-          return null;
-        }
+    synchronized (actionNameCache) {
+      Class<? extends Action> type = actionNameCache.get(key);
 
-        KeySet keys = KeySet.fromName(name);
-        if (keys == null) return null;
-
-        if (set.intersects(keys)) {
-          Log.w(LOG_TAG, "key specified more than once: " + name);
-          return null;
+      if (type == null) {
+        if ((type = getActionClass(name, endpoint.getClass())) == null) {
+          if ((type = getActionClass(name, KeyBindings.class)) == null) {
+            Log.w(LOG_TAG, "unknown action: " + name);
+            type = Action.class;
+          }
         }
 
-        set.add(keys);
+        actionNameCache.put(key, type);
       }
 
-      sets = addKeySet(sets, set.freeze());
-      if (sets == null) return null;
+      if (type == Action.class) return null;
+      return type;
     }
-
-    return sets;
   }
 
-  private boolean bindKeyCombination (String[] operands) {
-    int index = 0;
+  private static String toString (KeySet[] keySets) {
+    StringBuilder sb = new StringBuilder();
 
-    if (index == operands.length) {
-      Log.w(LOG_TAG, "key combination not specified");
-      return true;
+    for (KeySet keys : keySets) {
+      if (sb.length() > 0) sb.append(KEY_COMBINATION_DELIMITER);
+      sb.append(keys.toString());
     }
 
-    String keyCombination = operands[index++];
-    KeySet[] keySets = parseKeyCombination(keyCombination);
-    if (keySets == null) return true;
-
-    if (index == operands.length) {
-      Log.w(LOG_TAG, "action not specified");
-      return true;
-    }
+    return sb.toString();
+  }
 
-    String actionName = operands[index++];
-    Action action = getAction(actionName);
-    if (action == null) return true;
+  private void addKeyBinding (KeyBindingTable.Binding binding) {
+    Class<? extends Action> type = getActionClass(binding.getActionName());
+    if (type == null) return;
 
-    if (index < operands.length) {
-      Log.w(LOG_TAG, "too many operands");
-    }
+    KeySet[] keySets = binding.getKeySets();
 
-    if (!addKeyBinding(action, keySets)) {
-      Log.w(LOG_TAG, "key combination already bound: " + keyCombination);
-      return true;
+    if (!addKeyBinding(type, keySets)) {
+      Log.w(LOG_TAG, "key combination already bound: " + toString(keySets));
     }
-
-    return true;
-  }
-
-  private InputProcessor makeInputProcessor () {
-    return new DirectiveProcessor()
-      .addDirective("bind",
-        new DirectiveProcessor.DirectiveHandler() {
-          @Override
-          public boolean handleDirective (String[] operands) {
-            return bindKeyCombination(operands);
-          }
-        }
-      )
-
-      .setSkipCommentLines(true)
-      .setTrimTrailingComments(true)
-      ;
   }
 
   public void addKeyBindings (String name) {
-    Log.d(LOG_TAG, "begin key binding definitions: " + name);
-    makeInputProcessor().processInput((name + ".keys"));
-    Log.d(LOG_TAG, "end key binding definitions: " + name);
+    for (KeyBindingTable.Binding binding : KeyBindingTable.get(name)) {
+      addKeyBinding(binding);
+    }
   }
 
   public KeyBindings (Endpoint endpoint) {
@@ -6,11 +6,8 @@ import org.nbp.b2g.ui.actions.PanRight;
 import org.nbp.b2g.ui.host.actions.MoveBackward;
 import org.nbp.b2g.ui.host.actions.MoveForward;
 
-import java.util.Set;
-import java.util.LinkedHashSet;
-
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.BitSet;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -33,8 +30,11 @@ public abstract class KeyEvents {
   private static long navigationKeyReleaseTime;
   private final static KeySet activeNavigationKeys = new KeySet();
   private final static KeySet pressedNavigationKeys = new KeySet();
-  private final static SortedSet<Integer> pressedCursorKeys = new TreeSet<Integer>();
-  private final static Set<Integer> pressedKeyboardKeys = new LinkedHashSet<Integer>();
+  private final static BitSet pressedCursorKeys = new BitSet();
+
+  // in the order they were pressed
+  private static int[] pressedKeyboardKeys = new int[0X10];
+  private static int pressedKeyboardKeyCount = 0;
 
   private final static int oneHandCompletionKey = KeySet.SPACE;
   private static boolean oneHandNavigationKeyPressed;
@@ -53,35 +53,55 @@ public abstract class KeyEvents {
     }
   }.freeze();
 
+  private static int findKeyboardKey (int key) {
+    for (int index=0; index<pressedKeyboardKeyCount; index+=1) {
+      if (pressedKeyboardKeys[index] == key) return index;
+    }
+
+    return -1;
+  }
+
   private static void handleKeyboardPress (int key) {
-    pressedKeyboardKeys.add(key);
+    if (findKeyboardKey(key) < 0) {
+      if (pressedKeyboardKeyCount == pressedKeyboardKeys.length) {
+        pressedKeyboardKeys = Arrays.copyOf(pressedKeyboardKeys, (pressedKeyboardKeyCount << 1));
+      }
+
+      pressedKeyboardKeys[pressedKeyboardKeyCount++] = key;
+    }
   }
 
   private static void handleKeyboardRelease (int key) {
-    if (!pressedKeyboardKeys.isEmpty()) {
-      pressedKeyboardKeys.remove(key);
+    if (pressedKeyboardKeyCount > 0) {
+      int index = findKeyboardKey(key);
+
+      if (index >= 0) {
+        pressedKeyboardKeyCount -= 1;
+
+        System.arraycopy(
+          pressedKeyboardKeys, (index + 1),
+          pressedKeyboardKeys, index,
+          (pressedKeyboardKeyCount - index)
+        );
+      }
     } else {
       InputService.injectKeyEvent(key, false);
     }
   }
 
   private static boolean handleKeyboardFlush () {
-    if (pressedKeyboardKeys.isEmpty()) return false;
+    if (pressedKeyboardKeyCount == 0) return false;
     if (!pressedCursorKeys.isEmpty()) return false;
 
-    int[] keys = new int[pressedKeyboardKeys.size()];
-    int count = 0;
-
-    for (Integer key : pressedKeyboardKeys) {
-      if (!KeySet.isKeyboardCode(key)) return false;
-      keys[count++] = key;
+    for (int index=0; index<pressedKeyboardKeyCount; index+=1) {
+      if (!KeySet.isKeyboardCode(pressedKeyboardKeys[index])) return false;
     }
 
-    for (int index=0; index<count; index+=1) {
-      InputService.injectKeyEvent(keys[index], true);
+    for (int index=0; index<pressedKeyboardKeyCount; index+=1) {
+      InputService.injectKeyEvent(pressedKeyboardKeys[index], true);
     }
 
-    pressedKeyboardKeys.clear();
+    pressedKeyboardKeyCount = 0;
     return true;
   }
 
@@ -119,9 +139,9 @@ public abstract class KeyEvents {
   }
 
   public static boolean performAction (Action action, int... cursorKeys) {
-    for (int key : cursorKeys) pressedCursorKeys.add(key);
+    for (int key : cursorKeys) pressedCursorKeys.set(key);
     boolean result = performAction(action);
-    for (int key : cursorKeys) pressedCursorKeys.remove(key);
+    for (int key : cursorKeys) pressedCursorKeys.clear(key);
     return result;
   }
 
@@ -193,7 +213,7 @@ public abstract class KeyEvents {
       boolean performed = false;
 
       if (action != null) {
-        pressedKeyboardKeys.clear();
+        pressedKeyboardKeyCount = 0;
         if (action instanceof ModifierAction) wasModifier = true;
         if (!action.isHidden()) Devices.braille.get().dismiss();
         if (performAction(action)) performed = true;
@@ -249,7 +269,7 @@ public abstract class KeyEvents {
       activeNavigationKeys.clear();
       pressedNavigationKeys.clear();
       pressedCursorKeys.clear();
-      pressedKeyboardKeys.clear();
+      pressedKeyboardKeyCount = 0;
 
       oneHandNavigationKeyPressed = false;
       oneHandSpaceTimeout = 0;
@@ -386,10 +406,10 @@ public abstract class KeyEvents {
   }
 
   public static int[] getCursorKeys () {
-    int[] keyNumbers = new int[pressedCursorKeys.size()];
+    int[] keyNumbers = new int[pressedCursorKeys.cardinality()];
     int index = 0;
 
-    for (int keyNumber : pressedCursorKeys) {
+    for (int keyNumber=pressedCursorKeys.nextSetBit(0); keyNumber>=0; keyNumber=pressedCursorKeys.nextSetBit(keyNumber+1)) {
       keyNumbers[index++] = keyNumber;
     }
 
@@ -407,7 +427,7 @@ public abstract class KeyEvents {
       sb.append(keyNumber);
 
       sb.append(" (");
-      for (Integer key : pressedCursorKeys) {
+      for (int key=pressedCursorKeys.nextSetBit(0); key>=0; key=pressedCursorKeys.nextSetBit(key+1)) {
         if (sb.length() > 0) sb.append(", ");;
         sb.append(key);
       }
@@ -425,11 +445,12 @@ public abstract class KeyEvents {
     onKeyPress();
 
     synchronized (longPressTimeout) {
-      if (pressedCursorKeys.add(key)) {
+      if (!pressedCursorKeys.get(key)) {
+        pressedCursorKeys.set(key);
         logCursorKeyAction(key, "press");
 
         if (!handleEndpointCursorKeyEvent(key, true)) {
-          if (pressedCursorKeys.size() == 1) {
+          if (pressedCursorKeys.cardinality() == 1) {
             handleNavigationKey(KeySet.CURSOR);
           }
         }
@@ -439,11 +460,11 @@ public abstract class KeyEvents {
 
   private static void handleCursorKeyRelease (int key) {
     synchronized (longPressTimeout) {
-      if (pressedCursorKeys.contains(key)) {
+      if (pressedCursorKeys.get(key)) {
         try {
           handleEndpointCursorKeyEvent(key, false);
         } finally {
-          pressedCursorKeys.remove(key);
+          pressedCursorKeys.clear(key);
           logCursorKeyAction(key, "release");
         }
       }
@@ -4,9 +4,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 
-import java.util.Set;
-import java.util.LinkedHashSet;
-
 import java.util.Map;
 import java.util.HashMap;
 
@@ -18,35 +15,77 @@ import android.view.KeyEvent;
 public class KeySet {
   private final static String LOG_TAG = KeySet.class.getName();
 
-  private final Set<Integer> keyCodes = new LinkedHashSet<Integer>();
+  // one bit per key code - the bindings and the pressed keys are compared
+  // and hashed without boxing the codes or allocating iterators
+  private final long[] keyBits = new long[WORD_COUNT];
   private boolean hasBeenFrozen = false;
 
+  private static int getWordIndex (int code) {
+    return code >>> 6;
+  }
+
+  private static long getBit (int code) {
+    return 1L << (code & 0X3F);
+  }
+
+  private static boolean isValidCode (int code) {
+    return (code >= 0) && (code < (WORD_COUNT * Long.SIZE));
+  }
+
   @Override
   public final int hashCode () {
-    return keyCodes.hashCode();
+    return Arrays.hashCode(keyBits);
   }
 
   @Override
   public final boolean equals (Object object) {
     if (object == this) return true;
     if (!(object instanceof KeySet)) return false;
-    return keyCodes.equals(((KeySet)object).keyCodes);
+    return Arrays.equals(keyBits, ((KeySet)object).keyBits);
   }
 
   public final int size () {
-    return keyCodes.size();
+    int size = 0;
+    for (long word : keyBits) size += Long.bitCount(word);
+    return size;
   }
 
   public final boolean isEmpty () {
-    return keyCodes.isEmpty();
+    for (long word : keyBits) {
+      if (word != 0) return false;
+    }
+
+    return true;
+  }
+
+  // returns the lowest code that's at least from, or -1
+  public final int nextCode (int from) {
+    if (from < 0) from = 0;
+    int index = getWordIndex(from);
+    if (index >= WORD_COUNT) return -1;
+    long word = keyBits[index] & (-1L << (from & 0X3F));
+
+    while (true) {
+      if (word != 0) return (index * Long.SIZE) + Long.numberOfTrailingZeros(word);
+      if (++index == WORD_COUNT) return -1;
+      word = keyBits[index];
+    }
   }
 
   public final Integer[] get () {
-    return keyCodes.toArray(new Integer[size()]);
+    Integer[] codes = new Integer[size()];
+    int count = 0;
+
+    for (int code=nextCode(0); code>=0; code=nextCode(code+1)) {
+      codes[count++] = code;
+    }
+
+    return codes;
   }
 
-  public final boolean get (Integer code) {
-    return keyCodes.contains(code);
+  public final boolean get (int code) {
+    if (!isValidCode(code)) return false;
+    return (keyBits[getWordIndex(code)] & getBit(code)) != 0;
   }
 
   public final boolean intersects (int... codes) {
@@ -66,7 +105,20 @@ public class KeySet {
   }
 
   public final boolean intersects (KeySet keys) {
-    return intersects(keys.keyCodes);
+    for (int index=0; index<WORD_COUNT; index+=1) {
+      if ((keyBits[index] & keys.keyBits[index]) != 0) return true;
+    }
+
+    return false;
+  }
+
+  // true if every key is also in the specified set
+  public final boolean within (KeySet keys) {
+    for (int index=0; index<WORD_COUNT; index+=1) {
+      if ((keyBits[index] & ~keys.keyBits[index]) != 0) return false;
+    }
+
+    return true;
   }
 
   private final void freezeCheck () {
@@ -81,26 +133,44 @@ public class KeySet {
 
   public final void clear () {
     freezeCheck();
-    keyCodes.clear();
+    Arrays.fill(keyBits, 0);
   }
 
-  public final boolean remove (Integer... codes) {
+  public final boolean remove (int code) {
     freezeCheck();
+    if (!get(code)) return false;
+    keyBits[getWordIndex(code)] &= ~getBit(code);
+    return true;
+  }
+
+  public final boolean remove (int... codes) {
     boolean changed = false;
 
-    for (Integer code : codes) {
-      if (keyCodes.remove(code)) changed = true;
+    for (int code : codes) {
+      if (remove(code)) changed = true;
     }
 
     return changed;
   }
 
-  public final boolean add (Integer... codes) {
+  public final boolean add (int code) {
+    freezeCheck();
+
+    if (!isValidCode(code)) {
+      throw new IllegalArgumentException(("key code out of range: " + code));
+    }
+
+    if (get(code)) return false;
+    keyBits[getWordIndex(code)] |= getBit(code);
+    return true;
+  }
+
+  public final boolean add (int... codes) {
     freezeCheck();
     boolean changed = false;
 
-    for (Integer code : codes) {
-      if (keyCodes.add(code)) changed = true;
+    for (int code : codes) {
+      if (add(code)) changed = true;
     }
 
     return changed;
@@ -108,14 +178,32 @@ public class KeySet {
 
   public final boolean add (Collection<Integer> codes) {
     freezeCheck();
-    return keyCodes.addAll(codes);
+    boolean changed = false;
+
+    for (Integer code : codes) {
+      if (add(code.intValue())) changed = true;
+    }
+
+    return changed;
   }
 
   public final boolean add (KeySet keys) {
-    return add(keys.keyCodes);
+    freezeCheck();
+    boolean changed = false;
+
+    for (int index=0; index<WORD_COUNT; index+=1) {
+      long word = keyBits[index] | keys.keyBits[index];
+
+      if (word != keyBits[index]) {
+        keyBits[index] = word;
+        changed = true;
+      }
+    }
+
+    return changed;
   }
 
-  public final void set (Integer... codes) {
+  public final void set (int... codes) {
     clear();
     add(codes);
   }
@@ -126,10 +214,11 @@ public class KeySet {
   }
 
   public final void set (KeySet keys) {
-    set(keys.keyCodes);
+    freezeCheck();
+    System.arraycopy(keys.keyBits, 0, keyBits, 0, WORD_COUNT);
   }
 
-  public KeySet (Integer... codes) {
+  public KeySet (int... codes) {
     add(codes);
   }
 
@@ -219,8 +308,16 @@ public class KeySet {
   public final static int maximumKeyboardCode = KeyEvent.getMaxKeyCode();
   private static int lastAssignedCode = maximumKeyboardCode;
 
+  private final static int MAXIMUM_ASSIGNED_KEYS = 0X40;
+  private final static int WORD_COUNT =
+    ((maximumKeyboardCode + MAXIMUM_ASSIGNED_KEYS) / Long.SIZE) + 1;
+
   private static int addKey (String name) {
     synchronized (ADD_KEY_LOCK) {
+      if ((lastAssignedCode - maximumKeyboardCode) == MAXIMUM_ASSIGNED_KEYS) {
+        throw new IllegalStateException(("too many assigned keys: " + name));
+      }
+
       int code = ++lastAssignedCode;
       addKey(code, name);
       return code;
@@ -316,36 +413,26 @@ public class KeySet {
     return volumeKeys.get(code);
   }
 
-  private final static Map<Integer, Byte> codeToDot =
-               new HashMap<Integer, Byte>()
-  {
+  private final static KeySet dotsKeys = new KeySet(dotKeys) {
     {
-      put(DOT_1, Braille.CELL_DOT_1);
-      put(DOT_2, Braille.CELL_DOT_2);
-      put(DOT_3, Braille.CELL_DOT_3);
-      put(DOT_4, Braille.CELL_DOT_4);
-      put(DOT_5, Braille.CELL_DOT_5);
-      put(DOT_6, Braille.CELL_DOT_6);
-      put(DOT_7, Braille.CELL_DOT_7);
-      put(DOT_8, Braille.CELL_DOT_8);
+      add(SPACE);
     }
-  };
+  }.freeze();
 
   public final Byte toDots () {
+    if (!within(dotsKeys)) return null;
     byte dots = 0;
-    boolean space = false;
-
-    for (Integer code : keyCodes) {
-      if (code == SPACE) {
-        space = true;
-      } else {
-        Byte dot = codeToDot.get(code);
-        if (dot == null) return null;
-        dots |= dot;
-      }
-    }
 
-    if (space == (dots != 0)) return null;
+    if (get(DOT_1)) dots |= Braille.CELL_DOT_1;
+    if (get(DOT_2)) dots |= Braille.CELL_DOT_2;
+    if (get(DOT_3)) dots |= Braille.CELL_DOT_3;
+    if (get(DOT_4)) dots |= Braille.CELL_DOT_4;
+    if (get(DOT_5)) dots |= Braille.CELL_DOT_5;
+    if (get(DOT_6)) dots |= Braille.CELL_DOT_6;
+    if (get(DOT_7)) dots |= Braille.CELL_DOT_7;
+    if (get(DOT_8)) dots |= Braille.CELL_DOT_8;
+
+    if (get(SPACE) == (dots != 0)) return null;
     return dots;
   }
 
@@ -403,10 +490,10 @@ public class KeySet {
       KeyDefinition[] keys;
 
       synchronized (codeToKey) {
-        keys = new KeyDefinition[keyCodes.size()];
+        keys = new KeyDefinition[size()];
         int index = 0;
 
-        for (Integer code : keyCodes) {
+        for (int code=nextCode(0); code>=0; code=nextCode(code+1)) {
           KeyDefinition key = codeToKey.get(code);
           if (key == null) key = addKey(code);
           keys[index++] = key;
@@ -44,6 +44,16 @@ public abstract class Keyboard {
     return injector.keyboardRelease(key);
   }
 
+  public static boolean pressKeys (int[] keys) {
+    for (int key : keys) logKeyboardEvent(key, "press");
+    return injector.keyboardPress(keys);
+  }
+
+  public static boolean releaseKeys (int[] keys) {
+    for (int key : keys) logKeyboardEvent(key, "release");
+    return injector.keyboardRelease(keys);
+  }
+
   public static boolean injectKey (int key, boolean press) {
     return press? pressKey(key): releaseKey(key);
   }
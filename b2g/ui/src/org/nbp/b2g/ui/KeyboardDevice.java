@@ -13,20 +13,37 @@ public class KeyboardDevice extends UInputDevice implements KeyboardInjector {
   protected native boolean keyboardPress (ByteBuffer uinput, int key);
   protected native boolean keyboardRelease (ByteBuffer uinput, int key);
 
+  protected native boolean keyboardPressKeys (ByteBuffer uinput, int[] keys);
+  protected native boolean keyboardReleaseKeys (ByteBuffer uinput, int[] keys);
+
   @Override
-  public boolean keyboardPress (int key) {
+  public synchronized boolean keyboardPress (int key) {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
     return keyboardPress(uinput, key);
   }
 
   @Override
-  public boolean keyboardRelease (int key) {
+  public synchronized boolean keyboardRelease (int key) {
     ByteBuffer uinput = getUInputDescriptor();
     if (uinput == null) return false;
     return keyboardRelease(uinput, key);
   }
 
+  @Override
+  public synchronized boolean keyboardPress (int[] keys) {
+    ByteBuffer uinput = getUInputDescriptor();
+    if (uinput == null) return false;
+    return keyboardPressKeys(uinput, keys);
+  }
+
+  @Override
+  public synchronized boolean keyboardRelease (int[] keys) {
+    ByteBuffer uinput = getUInputDescriptor();
+    if (uinput == null) return false;
+    return keyboardReleaseKeys(uinput, keys);
+  }
+
   private boolean enableKeys (ByteBuffer uinput) {
     for (int key : Keyboard.getScanCodeValues()) {
       if (!keyEnable(uinput, key)) return false;
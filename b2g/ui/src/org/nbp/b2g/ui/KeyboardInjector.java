@@ -3,4 +3,7 @@ package org.nbp.b2g.ui;
 public interface KeyboardInjector {
   public boolean keyboardPress (int key);
   public boolean keyboardRelease (int key);
+
+  public boolean keyboardPress (int[] keys);
+  public boolean keyboardRelease (int[] keys);
 }
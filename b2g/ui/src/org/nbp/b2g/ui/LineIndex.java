@@ -0,0 +1,123 @@
+package org.nbp.b2g.ui;
+
+import java.util.Arrays;
+
+public class LineIndex {
+  private final static char NEWLINE = '\n';
+  private final static int INITIAL_SIZE = 0X10;
+
+  private int[] newlineOffsets;
+  private int newlineCount;
+  private int textLength;
+
+  private final void ensureCapacity (int count) {
+    if (count > newlineOffsets.length) {
+      int size = newlineOffsets.length;
+      while (size < count) size <<= 1;
+      newlineOffsets = Arrays.copyOf(newlineOffsets, size);
+    }
+  }
+
+  private final void addNewline (int offset) {
+    ensureCapacity(newlineCount + 1);
+    newlineOffsets[newlineCount++] = offset;
+  }
+
+  // returns the number of newlines before the offset
+  private final int countNewlines (int offset) {
+    int from = 0;
+    int to = newlineCount;
+
+    while (from < to) {
+      int current = (from + to) >>> 1;
+
+      if (newlineOffsets[current] < offset) {
+        from = current + 1;
+      } else {
+        to = current;
+      }
+    }
+
+    return from;
+  }
+
+  public final int getTextLength () {
+    return textLength;
+  }
+
+  public final int getLineCount () {
+    return newlineCount + 1;
+  }
+
+  public final int getLineNumber (int offset) {
+    return countNewlines(offset);
+  }
+
+  public final int getLineStart (int lineNumber) {
+    if (lineNumber <= 0) return 0;
+    if (lineNumber > newlineCount) lineNumber = newlineCount;
+    return newlineOffsets[lineNumber - 1] + 1;
+  }
+
+  public final int findPreviousNewline (int offset) {
+    if (offset > textLength) offset = textLength;
+    int index = countNewlines(offset);
+    if (index == 0) return -1;
+    return newlineOffsets[index - 1];
+  }
+
+  public final int findNextNewline (int offset) {
+    if (offset < 0) offset = 0;
+    int index = countNewlines(offset);
+    if (index == newlineCount) return -1;
+    return newlineOffsets[index];
+  }
+
+  public final void replace (int start, int end, CharSequence text) {
+    int first = countNewlines(start);
+    int last = countNewlines(end);
+
+    int insertedLength = text.length();
+    int adjustment = insertedLength - (end - start);
+
+    int insertedCount = 0;
+    for (int index=0; index<insertedLength; index+=1) {
+      if (text.charAt(index) == NEWLINE) insertedCount += 1;
+    }
+
+    int oldCount = newlineCount;
+    int newCount = oldCount - (last - first) + insertedCount;
+    ensureCapacity(newCount);
+
+    int tailCount = oldCount - last;
+    int tailStart = first + insertedCount;
+    System.arraycopy(newlineOffsets, last, newlineOffsets, tailStart, tailCount);
+
+    for (int index=0; index<tailCount; index+=1) {
+      newlineOffsets[tailStart + index] += adjustment;
+    }
+
+    {
+      int next = first;
+
+      for (int index=0; index<insertedLength; index+=1) {
+        if (text.charAt(index) == NEWLINE) {
+          newlineOffsets[next++] = start + index;
+        }
+      }
+    }
+
+    newlineCount = newCount;
+    textLength += adjustment;
+  }
+
+  public LineIndex (CharSequence text) {
+    newlineOffsets = new int[INITIAL_SIZE];
+    newlineCount = 0;
+    textLength = text.length();
+
+    for (int offset=0; offset<textLength; offset+=1) {
+      if (text.charAt(offset) == NEWLINE) addNewline(offset);
+    }
+  }
+}
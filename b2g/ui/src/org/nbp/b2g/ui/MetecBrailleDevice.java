@@ -75,4 +75,11 @@ public class MetecBrailleDevice extends BrailleDevice {
 
   @Override
   protected final native boolean writeCells (byte[] cells);
+
+  private final native boolean writeCellRange (byte[] cells, int from, int to);
+
+  @Override
+  protected final boolean writeCells (byte[] cells, int from, int to) {
+    return writeCellRange(cells, from, to);
+  }
 }
@@ -0,0 +1,8 @@
+package org.nbp.b2g.ui;
+
+public enum RemoteConnection {
+  BLUETOOTH,
+  NETWORK,
+  LOCAL,
+  ; // end of enumeration
+}
@@ -35,6 +35,16 @@ public abstract class ScanCodeAction extends KeyCodeAction {
           protected boolean injectKeyRelease (int key) {
             return Keyboard.releaseKey(key);
           }
+
+          @Override
+          protected boolean injectKeyPresses (int[] keys) {
+            return Keyboard.pressKeys(keys);
+          }
+
+          @Override
+          protected boolean injectKeyReleases (int[] keys) {
+            return Keyboard.releaseKeys(keys);
+          }
         };
 
         if (keyCombinationInjector.injectKeyCombination(value, getScanCodeModifiers())) {
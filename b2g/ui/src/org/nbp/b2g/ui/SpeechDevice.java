@@ -32,5 +32,22 @@ public class SpeechDevice extends TextPlayer {
     setRate(ApplicationSettings.SPEECH_RATE);
     setPitch(ApplicationSettings.SPEECH_PITCH);
     setBalance(ApplicationSettings.SPEECH_BALANCE);
+    prepareCommonPhrases();
+  }
+
+  private final void prepareCommonPhrases () {
+    prepare(
+      ApplicationContext.getString(R.string.control_next_boolean),
+      ApplicationContext.getString(R.string.control_previous_boolean),
+      CharacterPhrase.get(' ')
+    );
+
+    for (char character='a'; character<='z'; character+=1) {
+      prepare(CharacterPhrase.get(character));
+    }
+
+    for (char character='0'; character<='9'; character+=1) {
+      prepare(CharacterPhrase.get(character));
+    }
   }
 }
@@ -1,35 +1,246 @@
 package org.nbp.b2g.ui;
 
 import java.util.Map;
-import org.nbp.common.CachingMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+
+import android.util.Log;
+
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+
 import org.liblouis.Translation;
+import org.liblouis.Translator;
 
 public abstract class TranslationCache {
-  private final static int CACHE_SIZE = 5;
+  private final static String LOG_TAG = TranslationCache.class.getName();
+
+  private final static class Key {
+    private final String keyText;
+    private final String keySpans;
+    private final Translator keyTranslator;
+    private final boolean keyHighlighting;
+    private final int keyHash;
+
+    public Key (CharSequence text, Translator translator, boolean includeHighlighting) {
+      keyText = text.toString();
+      keySpans = getSpanSignature(text);
+      keyTranslator = translator;
+      keyHighlighting = includeHighlighting;
+
+      int hash = keyText.hashCode();
+      hash = (hash * 31) + keySpans.hashCode();
+      hash = (hash * 31) + System.identityHashCode(translator);
+      hash = (hash * 31) + (includeHighlighting? 1: 0);
+      keyHash = hash;
+    }
+
+    public final Translator getTranslator () {
+      return keyTranslator;
+    }
+
+    @Override
+    public int hashCode () {
+      return keyHash;
+    }
+
+    @Override
+    public boolean equals (Object object) {
+      if (object == this) return true;
+      if (!(object instanceof Key)) return false;
+
+      Key key = (Key)object;
+      if (key.keyHash != keyHash) return false;
+      if (key.keyTranslator != keyTranslator) return false;
+      if (key.keyHighlighting != keyHighlighting) return false;
+      if (!key.keyText.equals(keyText)) return false;
+      return key.keySpans.equals(keySpans);
+    }
+  }
+
+  // the emphasis and the output's spans both come from the input's spans
+  private static String getSpanSignature (CharSequence text) {
+    if (!(text instanceof Spanned)) return "";
+
+    Spanned spanned = (Spanned)text;
+    Object[] spans = spanned.getSpans(0, spanned.length(), Object.class);
+    if (spans == null) return "";
+
+    StringBuilder signature = new StringBuilder();
+
+    for (Object span : spans) {
+      signature.append(span.getClass().getName());
+
+      if (span instanceof StyleSpan) {
+        signature.append('/');
+        signature.append(((StyleSpan)span).getStyle());
+      }
+
+      signature.append(':');
+      signature.append(spanned.getSpanStart(span));
+      signature.append('-');
+      signature.append(spanned.getSpanEnd(span));
+      signature.append(' ');
+    }
+
+    return signature.toString();
+  }
+
+  private final static class Entry {
+    private final Translation entryTranslation;
+    private final int entryCost;
+
+    public Entry (Translation translation) {
+      entryTranslation = translation;
+
+      // the characters of the input and the output plus their offset arrays
+      int length = translation.getInputLength() + translation.getOutputLength();
+      entryCost = (length * ((Character.SIZE + Integer.SIZE) / Byte.SIZE))
+                + ApplicationParameters.TRANSLATION_CACHE_ENTRY_OVERHEAD;
+    }
+
+    public final Translation getTranslation () {
+      return entryTranslation;
+    }
+
+    public final int getCost () {
+      return entryCost;
+    }
+  }
+
+  private final static LinkedHashMap<Key, Entry> map =
+    new LinkedHashMap<Key, Entry>(0X100, 0.75f, true);
+
+  private static long totalCost = 0;
+  private static long hitCount = 0;
+  private static long missCount = 0;
+  private static long evictionCount = 0;
 
-  private final static Map<String, Translation> map =
-    new CachingMap<String, Translation>(CACHE_SIZE);
+  private static void remove (Iterator<Entry> iterator, Entry entry) {
+    iterator.remove();
+    totalCost -= entry.getCost();
+  }
+
+  private static void evict () {
+    Iterator<Entry> iterator = map.values().iterator();
+
+    while (iterator.hasNext()) {
+      if (map.size() <= ApplicationParameters.TRANSLATION_CACHE_SIZE) {
+        if (totalCost <= ApplicationParameters.TRANSLATION_CACHE_COST) {
+          break;
+        }
+      }
+
+      remove(iterator, iterator.next());
+      evictionCount += 1;
+    }
+  }
 
   public static void clear () {
     synchronized (map) {
       map.clear();
+      totalCost = 0;
     }
   }
 
-  public static void put (CharSequence text, Translation translation) {
+  public static void clear (Translator translator) {
+    synchronized (map) {
+      Iterator<Map.Entry<Key, Entry>> iterator = map.entrySet().iterator();
+
+      while (iterator.hasNext()) {
+        Map.Entry<Key, Entry> entry = iterator.next();
+
+        if (entry.getKey().getTranslator() == translator) {
+          iterator.remove();
+          totalCost -= entry.getValue().getCost();
+        }
+      }
+    }
+  }
+
+  public static void put (CharSequence text, Translation translation, boolean includeHighlighting) {
+    if (translation == null) return;
+
     if (text.length() > 0) {
+      Key key = new Key(text, translation.getTranslator(), includeHighlighting);
+      Entry entry = new Entry(translation);
+
       synchronized (map) {
-        map.put(text.toString(), translation);
+        Entry old = map.put(key, entry);
+        if (old != null) totalCost -= old.getCost();
+        totalCost += entry.getCost();
+        evict();
+      }
+    }
+  }
+
+  public static Translation get (CharSequence text, Translator translator, boolean includeHighlighting) {
+    Key key = new Key(text, translator, includeHighlighting);
+
+    synchronized (map) {
+      Entry entry = map.get(key);
+
+      if (entry == null) {
+        missCount += 1;
+        return null;
       }
+
+      hitCount += 1;
+      return entry.getTranslation();
     }
   }
 
-  public static Translation get (CharSequence text) {
+  public static boolean contains (CharSequence text, Translator translator, boolean includeHighlighting) {
+    Key key = new Key(text, translator, includeHighlighting);
+
     synchronized (map) {
-      return map.get(text.toString());
+      return map.containsKey(key);
     }
   }
 
+  public static int getEntryCount () {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+
+  public static long getTotalCost () {
+    synchronized (map) {
+      return totalCost;
+    }
+  }
+
+  public static long getHitCount () {
+    synchronized (map) {
+      return hitCount;
+    }
+  }
+
+  public static long getMissCount () {
+    synchronized (map) {
+      return missCount;
+    }
+  }
+
+  public static long getEvictionCount () {
+    synchronized (map) {
+      return evictionCount;
+    }
+  }
+
+  public static String getStatistics () {
+    synchronized (map) {
+      return String.format(
+        "entries:%d cost:%d hits:%d misses:%d evictions:%d",
+        map.size(), totalCost, hitCount, missCount, evictionCount
+      );
+    }
+  }
+
+  public static void logStatistics () {
+    Log.d(LOG_TAG, ("translation cache: " + getStatistics()));
+  }
+
   private TranslationCache () {
   }
 }
@@ -0,0 +1,92 @@
+package org.nbp.b2g.ui;
+
+import android.util.Log;
+
+import org.liblouis.Translator;
+import org.liblouis.BrailleTranslation;
+
+public abstract class TranslationPrefetcher {
+  private final static String LOG_TAG = TranslationPrefetcher.class.getName();
+
+  private final static Object PREFETCH_LOCK = new Object();
+  private static Thread prefetchThread = null;
+
+  private static CharSequence[] pendingLines = null;
+  private static boolean pendingHighlighting = false;
+
+  private static boolean isSuperseded () {
+    synchronized (PREFETCH_LOCK) {
+      return pendingLines != null;
+    }
+  }
+
+  private static void translateLines (CharSequence[] lines, boolean includeHighlighting) {
+    for (CharSequence line : lines) {
+      if (isSuperseded()) return;
+      if (!ApplicationSettings.LITERARY_BRAILLE) return;
+
+      if (line.length() == 0) continue;
+      Translator translator = ApplicationSettings.BRAILLE_CODE.getTranslator();
+      if (TranslationCache.contains(line, translator, includeHighlighting)) continue;
+
+      BrailleTranslation translation =
+        TranslationUtilities.newBrailleTranslation(line, includeHighlighting);
+      TranslationCache.put(line, translation, includeHighlighting);
+    }
+  }
+
+  private static void runPrefetchThread () {
+    while (true) {
+      CharSequence[] lines;
+      boolean includeHighlighting;
+
+      synchronized (PREFETCH_LOCK) {
+        while (pendingLines == null) {
+          try {
+            PREFETCH_LOCK.wait();
+          } catch (InterruptedException exception) {
+          }
+        }
+
+        lines = pendingLines;
+        includeHighlighting = pendingHighlighting;
+        pendingLines = null;
+      }
+
+      try {
+        translateLines(lines, includeHighlighting);
+      } catch (RuntimeException exception) {
+        Log.w(LOG_TAG, ("translation prefetch failed: " + exception.getMessage()));
+      }
+    }
+  }
+
+  private static void startPrefetchThread () {
+    if (prefetchThread == null) {
+      prefetchThread = new Thread("translation-prefetch") {
+        @Override
+        public void run () {
+          runPrefetchThread();
+        }
+      };
+
+      prefetchThread.setPriority(Thread.MIN_PRIORITY);
+      prefetchThread.setDaemon(true);
+      prefetchThread.start();
+    }
+  }
+
+  public static void prefetch (CharSequence[] lines, boolean includeHighlighting) {
+    if (lines.length == 0) return;
+
+    synchronized (PREFETCH_LOCK) {
+      startPrefetchThread();
+      pendingLines = lines;
+      pendingHighlighting = includeHighlighting;
+      PREFETCH_LOCK.notify();
+    }
+  }
+
+  private TranslationPrefetcher () {
+  }
+}
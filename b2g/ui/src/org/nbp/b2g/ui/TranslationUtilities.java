@@ -55,11 +55,12 @@ public abstract class TranslationUtilities {
     String braille = Character.toString(character);
     TextTranslation translation = newTextTranslation(braille);
     CharSequence text = translation.getTextWithSpans();
-    TranslationCache.put(text, translation);
+    TranslationCache.put(text, translation, false);
   }
 
   public final static void refresh () {
-    TranslationCache.clear();
+    if (ApplicationSettings.LOG_UPDATES) TranslationCache.logStatistics();
+    TranslationCache.clear(ApplicationSettings.BRAILLE_CODE.getTranslator());
 
     if (ApplicationSettings.LITERARY_BRAILLE) {
       Endpoints.getCurrentEndpoint().refresh();
@@ -15,7 +15,7 @@ public abstract class UInputDevice {
   private native boolean createDevice (ByteBuffer uinput);
   private native void closeDevice (ByteBuffer uinput);
 
-  protected boolean open () {
+  protected synchronized boolean open () {
     if (uinputDescriptor != null) return true;
 
     ByteBuffer uinput = openDevice(getClass().getName());
@@ -33,7 +33,7 @@ public abstract class UInputDevice {
     return false;
   }
 
-  public void close () {
+  public synchronized void close () {
     if (uinputDescriptor != null) {
       ByteBuffer uinput = uinputDescriptor;
       uinputDescriptor = null;
@@ -41,7 +41,7 @@ public abstract class UInputDevice {
     }
   }
 
-  protected ByteBuffer getUInputDescriptor () {
+  protected synchronized ByteBuffer getUInputDescriptor () {
     return open()? uinputDescriptor: null;
   }
 
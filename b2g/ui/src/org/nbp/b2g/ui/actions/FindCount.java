@@ -0,0 +1,13 @@
+package org.nbp.b2g.ui.actions;
+import org.nbp.b2g.ui.*;
+
+public class FindCount extends Action {
+  @Override
+  public boolean performAction () {
+    return Endpoints.find.get().reportOccurrenceCount(getEndpoint());
+  }
+
+  public FindCount (Endpoint endpoint) {
+    super(endpoint, false);
+  }
+}
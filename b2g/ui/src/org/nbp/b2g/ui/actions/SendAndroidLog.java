@@ -7,6 +7,7 @@ import java.io.IOException;
 
 import org.nbp.common.FileMaker;
 import org.nbp.common.AttachmentMaker;
+import org.nbp.common.Timeout;
 
 import android.util.Log;
 
@@ -14,6 +15,9 @@ public class SendAndroidLog extends Action {
   private final static String LOG_TAG = SendAndroidLog.class.getName();
 
   private File makeLogFile () {
+    // include the current scheduling figures in the log being sent
+    Log.d(LOG_TAG, ("timeout statistics: " + Timeout.getStatistics()));
+
     FileMaker fileMaker = new AttachmentMaker() {
       @Override
       protected boolean writeContent (final Writer writer) {
@@ -67,7 +67,67 @@ public class ShowDefinition extends CursorKeyAction {
     }
   }
 
-  private final void showDefinitions (final DefinitionList definitions, final String word) {
+  // the suggestions are requested along with the definitions so that
+  // they're usually ready by the time it's known that they're needed
+  private final class Suggestions {
+    private final String word;
+    private MatchList matches = null;
+    private boolean wanted = false;
+
+    public Suggestions (String word) {
+      this.word = word;
+    }
+
+    public final void setMatches (MatchList matches) {
+      synchronized (this) {
+        this.matches = matches;
+        if (!wanted) return;
+      }
+
+      showMatches(matches, word);
+    }
+
+    public final void show () {
+      MatchList matches;
+
+      synchronized (this) {
+        wanted = true;
+        if ((matches = this.matches) == null) return;
+      }
+
+      showMatches(matches, word);
+    }
+  }
+
+  private final Suggestions requestSuggestions (String word) {
+    final Suggestions suggestions = new Suggestions(word);
+
+    {
+      SpellingIndex index = SpellingIndex.get();
+
+      if (index != null) {
+        MatchList matches = new MatchList();
+
+        for (String suggestion : index.getSuggestions(word)) {
+          matches.add(suggestion, DictionaryParameters.SPELLING_WORDS_FILE);
+        }
+
+        suggestions.setMatches(matches);
+        return suggestions;
+      }
+    }
+
+    new MatchCommand(word, DictionaryStrategy.APPROXIMATE, ApplicationSettings.DICTIONARY_DATABASE) {
+      @Override
+      public void handleMatches (MatchList matches) {
+        suggestions.setMatches(matches);
+      }
+    };
+
+    return suggestions;
+  }
+
+  private final void showDefinitions (final DefinitionList definitions, final String word, Suggestions suggestions) {
     synchronized (this) {
       int count = definitions.size();
 
@@ -78,8 +138,8 @@ public class ShowDefinition extends CursorKeyAction {
       }
 
       if (count == 0) {
-        if (ApplicationSettings.SUGGEST_WORDS) {
-          requestMatches(word, DictionaryStrategy.APPROXIMATE);
+        if (suggestions != null) {
+          suggestions.show();
         } else {
           showNoDefinitions(word);
         }
@@ -93,10 +153,12 @@ public class ShowDefinition extends CursorKeyAction {
 
   private final void requestDefinitions (final String word) {
     synchronized (this) {
+      final Suggestions suggestions = ApplicationSettings.SUGGEST_WORDS? requestSuggestions(word): null;
+
       new DefineCommand(word, ApplicationSettings.DICTIONARY_DATABASE) {
         @Override
         public void handleDefinitions (DefinitionList definitions) {
-          showDefinitions(definitions, word);
+          showDefinitions(definitions, word, suggestions);
         }
       };
     }
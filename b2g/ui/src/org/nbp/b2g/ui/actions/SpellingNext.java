@@ -1,9 +1,23 @@
 package org.nbp.b2g.ui.actions;
 import org.nbp.b2g.ui.*;
 
+import org.nbp.common.dictionary.SpellingIndex;
+
 import android.text.style.SuggestionSpan;
 
 public class SpellingNext extends SpanAction {
+  private final int findNextMisspelling (Endpoint endpoint) {
+    SpellingIndex index = SpellingIndex.get();
+    if (index == null) return NOT_FOUND;
+
+    SpellingIndex.Misspelling misspelling = index.findNextMisspelling(
+      endpoint.getText(), endpoint.getSelectionStart()
+    );
+
+    if (misspelling == null) return NOT_FOUND;
+    return misspelling.getStart();
+  }
+
   @Override
   public boolean performAction () {
     Endpoint endpoint = getEndpoint();
@@ -11,6 +25,7 @@ public class SpellingNext extends SpanAction {
     synchronized (endpoint) {
       if (endpoint.isInputArea()) {
         int offset = findNextSpan(endpoint, SuggestionSpan.class);
+        if (offset == NOT_FOUND) offset = findNextMisspelling(endpoint);
         if (offset != NOT_FOUND) return endpoint.setCursor(offset);
         ApplicationUtilities.message(R.string.message_not_found);
       } else {
@@ -1,10 +1,46 @@
 package org.nbp.b2g.ui.actions;
 import org.nbp.b2g.ui.*;
 
+import org.nbp.common.dictionary.SpellingIndex;
+
 import android.text.style.SuggestionSpan;
 import android.text.Spanned;
 
 public class SpellingSuggest extends SpanAction {
+  private final boolean showSuggestions (final Endpoint endpoint, final String[] suggestions, final int start, final int end) {
+    StringBuilder message = new StringBuilder();
+    message.append(getString(R.string.popup_select_suggestion));
+
+    for (String suggestion : suggestions) {
+      message.append('\n');
+      message.append(suggestion);
+    }
+
+    return Endpoints.setPopupEndpoint(message.toString(), 1,
+      new PopupClickHandler() {
+        @Override
+        public boolean handleClick (int index) {
+          String suggestion = suggestions[index];
+
+          synchronized (endpoint) {
+            return endpoint.replaceText(start, end, suggestion);
+          }
+        }
+      }
+    );
+  }
+
+  // used when the input method hasn't attached any suggestions to the word
+  private final String[] getIndexSuggestions (CharSequence word) {
+    SpellingIndex index = SpellingIndex.get();
+    if (index == null) return null;
+    if (index.isCorrect(word)) return null;
+
+    String[] suggestions = index.getSuggestions(word);
+    if (suggestions.length == 0) return null;
+    return suggestions;
+  }
+
   @Override
   public boolean performAction () {
     final Endpoint endpoint = getEndpoint();
@@ -21,33 +57,26 @@ public class SpellingSuggest extends SpanAction {
           );
 
           if (span != null) {
-            final String[] suggestions = span.getSuggestions();
-            final int start = text.getSpanStart(span);
-            final int end = text.getSpanEnd(span);
-
-            StringBuilder message = new StringBuilder();
-            message.append(getString(R.string.popup_select_suggestion));
-
-            for (String suggestion : suggestions) {
-              message.append('\n');
-              message.append(suggestion);
-            }
-
-            return Endpoints.setPopupEndpoint(message.toString(), 1,
-              new PopupClickHandler() {
-                @Override
-                public boolean handleClick (int index) {
-                  String suggestion = suggestions[index];
-
-                  synchronized (endpoint) {
-                    return endpoint.replaceText(start, end, suggestion);
-                  }
-                }
-              }
+            return showSuggestions(
+              endpoint, span.getSuggestions(),
+              text.getSpanStart(span), text.getSpanEnd(span)
             );
           }
         }
 
+        {
+          CharSequence content = endpoint.getText();
+          int cursor = endpoint.getSelectionStart();
+
+          int start = SpellingIndex.findWordStart(content, cursor);
+          int end = SpellingIndex.findWordEnd(content, cursor);
+
+          if (end > start) {
+            String[] suggestions = getIndexSuggestions(content.subSequence(start, end));
+            if (suggestions != null) return showSuggestions(endpoint, suggestions, start, end);
+          }
+        }
+
         ApplicationUtilities.message(R.string.SpellingSuggest_none);
       } else {
         ApplicationUtilities.message(R.string.message_not_input);
@@ -34,7 +34,7 @@ public class BrailleEnabledControl extends BooleanControl {
     if (!Controls.amRestoringControls()) {
       if (!value) {
         if (!Controls.speechEnabled.getBooleanValue()) {
-          ApplicationUtilities.message(R.string.error_speech_off);
+          ApplicationUtilities.alert(R.string.error_speech_off);
           return false;
         }
       }
@@ -0,0 +1,53 @@
+package org.nbp.b2g.ui.controls;
+import org.nbp.b2g.ui.*;
+
+import org.nbp.b2g.ui.remote.RemoteEndpoint;
+
+import org.nbp.common.controls.BooleanControl;
+
+public class NetworkAccessControl extends BooleanControl {
+  @Override
+  protected int getResourceForLabel () {
+    return R.string.control_label_NetworkAccess;
+  }
+
+  @Override
+  protected int getResourceForGroup () {
+    return R.string.control_group_remote;
+  }
+
+  @Override
+  protected String getPreferenceKey () {
+    return "network-access";
+  }
+
+  @Override
+  protected boolean getBooleanDefault () {
+    return ApplicationDefaults.NETWORK_ACCESS;
+  }
+
+  @Override
+  public boolean getBooleanValue () {
+    return ApplicationSettings.NETWORK_ACCESS;
+  }
+
+  @Override
+  protected boolean setBooleanValue (boolean value) {
+    ApplicationSettings.NETWORK_ACCESS = value;
+
+    if (ApplicationSettings.REMOTE_DISPLAY) {
+      if (ApplicationSettings.REMOTE_CONNECTION == RemoteConnection.NETWORK) {
+        // the listening address only changes when the server is recreated
+        RemoteEndpoint endpoint = Endpoints.remote.get();
+        endpoint.stop();
+        endpoint.start();
+      }
+    }
+
+    return true;
+  }
+
+  public NetworkAccessControl () {
+    super();
+  }
+}
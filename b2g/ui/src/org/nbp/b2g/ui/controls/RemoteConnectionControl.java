@@ -0,0 +1,50 @@
+package org.nbp.b2g.ui.controls;
+import org.nbp.b2g.ui.*;
+
+import org.nbp.b2g.ui.remote.RemoteEndpoint;
+
+import org.nbp.common.controls.EnumerationControl;
+
+public class RemoteConnectionControl extends EnumerationControl<RemoteConnection> {
+  @Override
+  protected int getResourceForLabel () {
+    return R.string.control_label_RemoteConnection;
+  }
+
+  @Override
+  protected int getResourceForGroup () {
+    return R.string.control_group_remote;
+  }
+
+  @Override
+  protected String getPreferenceKey () {
+    return "remote-connection";
+  }
+
+  @Override
+  protected RemoteConnection getEnumerationDefault () {
+    return ApplicationDefaults.REMOTE_CONNECTION;
+  }
+
+  @Override
+  public RemoteConnection getEnumerationValue () {
+    return ApplicationSettings.REMOTE_CONNECTION;
+  }
+
+  @Override
+  protected boolean setEnumerationValue (RemoteConnection value) {
+    ApplicationSettings.REMOTE_CONNECTION = value;
+
+    if (ApplicationSettings.REMOTE_DISPLAY) {
+      RemoteEndpoint endpoint = Endpoints.remote.get();
+      endpoint.stop();
+      endpoint.start();
+    }
+
+    return true;
+  }
+
+  public RemoteConnectionControl () {
+    super();
+  }
+}
@@ -34,7 +34,7 @@ public class SpeechEnabledControl extends BooleanControl {
     if (!Controls.amRestoringControls()) {
       if (!value) {
         if (!Controls.brailleEnabled.getBooleanValue()) {
-          ApplicationUtilities.message(R.string.error_braille_off);
+          ApplicationUtilities.alert(R.string.error_braille_off);
           return false;
         }
       }
@@ -0,0 +1,56 @@
+package org.nbp.b2g.ui.controls;
+import org.nbp.b2g.ui.*;
+
+import org.nbp.common.controls.IntegerControl;
+
+public class TranslationLookaheadControl extends IntegerControl {
+  @Override
+  protected int getResourceForLabel () {
+    return R.string.control_label_TranslationLookahead;
+  }
+
+  @Override
+  protected int getResourceForGroup () {
+    return R.string.control_group_braille;
+  }
+
+  @Override
+  protected String getPreferenceKey () {
+    return "translation-lookahead";
+  }
+
+  private final static Integer MINIMUM_VALUE = 0;
+  private final static Integer MAXIMUM_VALUE = 5;
+
+  @Override
+  protected Integer getIntegerMinimum () {
+    return MINIMUM_VALUE;
+  }
+
+  @Override
+  protected Integer getIntegerMaximum () {
+    return MAXIMUM_VALUE;
+  }
+
+  @Override
+  protected int getIntegerDefault () {
+    return ApplicationDefaults.TRANSLATION_LOOKAHEAD;
+  }
+
+  @Override
+  public int getIntegerValue () {
+    return ApplicationSettings.TRANSLATION_LOOKAHEAD;
+  }
+
+  @Override
+  protected boolean setIntegerValue (int value) {
+    if (value < MINIMUM_VALUE) return false;
+    if (value > MAXIMUM_VALUE) return false;
+    ApplicationSettings.TRANSLATION_LOOKAHEAD = value;
+    return true;
+  }
+
+  public TranslationLookaheadControl () {
+    super();
+  }
+}
@@ -0,0 +1,326 @@
+package org.nbp.b2g.ui.host;
+import org.nbp.b2g.ui.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.nbp.common.CommonUtilities;
+
+import android.util.Log;
+import android.os.SystemClock;
+
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+public abstract class AccessibilityEventQueue {
+  private final static String LOG_TAG = AccessibilityEventQueue.class.getName();
+
+  protected abstract void handleEvent (AccessibilityEvent event);
+  protected abstract void onQueueEmpty ();
+
+  private final LinkedList<AccessibilityEvent> pendingEvents = new LinkedList<AccessibilityEvent>();
+  private Thread queueThread = null;
+
+  private long enqueuedCount = 0;
+  private long handledCount = 0;
+  private long mergedCount = 0;
+  private long droppedCount = 0;
+  private int maximumDepth = 0;
+
+  private static boolean isCoalescable (int type) {
+    switch (type) {
+      case AccessibilityEvent.TYPE_VIEW_TEXT_CHANGED:
+      case AccessibilityEvent.TYPE_VIEW_TEXT_SELECTION_CHANGED:
+      case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+      case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  // only events which describe a change to what's already known may be dropped on overflow
+  private static boolean isEvictable (int type) {
+    switch (type) {
+      case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+      case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isSupersededBy (int type, int newerType) {
+    if (newerType == type) return true;
+
+    switch (type) {
+      case AccessibilityEvent.TYPE_VIEW_TEXT_SELECTION_CHANGED:
+        // a text change also repositions the cursor
+        return newerType == AccessibilityEvent.TYPE_VIEW_TEXT_CHANGED;
+
+      default:
+        return false;
+    }
+  }
+
+  // fetching a source is a round trip to the application so each one is only fetched once per batch
+  private final static class EventSources {
+    private final List<AccessibilityEvent> batchEvents;
+    private final AccessibilityNodeInfo[] eventSources;
+    private final boolean[] haveSources;
+
+    public EventSources (List<AccessibilityEvent> events) {
+      int count = events.size();
+      batchEvents = events;
+      eventSources = new AccessibilityNodeInfo[count];
+      haveSources = new boolean[count];
+    }
+
+    public final AccessibilityNodeInfo get (int index) {
+      if (!haveSources[index]) {
+        eventSources[index] = batchEvents.get(index).getSource();
+        haveSources[index] = true;
+      }
+
+      return eventSources[index];
+    }
+
+    public final void recycle () {
+      for (AccessibilityNodeInfo source : eventSources) {
+        if (source != null) source.recycle();
+      }
+    }
+  }
+
+  private static boolean haveSameSource (EventSources sources, int index, int newerIndex) {
+    AccessibilityNodeInfo source = sources.get(index);
+    if (source == null) return false;
+    return source.equals(sources.get(newerIndex));
+  }
+
+  private static boolean coversContentChanges (AccessibilityEvent event, AccessibilityEvent newer) {
+    if (event.getEventType() != AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED) return true;
+    if (!CommonUtilities.haveKitkat) return true;
+
+    int types = event.getContentChangeTypes();
+    int newerTypes = newer.getContentChangeTypes();
+    if (newerTypes == AccessibilityEvent.CONTENT_CHANGE_TYPE_UNDEFINED) return true;
+    if (types == AccessibilityEvent.CONTENT_CHANGE_TYPE_UNDEFINED) return false;
+    return (types & ~newerTypes) == 0;
+  }
+
+  private static boolean isSuperseded (List<AccessibilityEvent> events, int index, EventSources sources) {
+    AccessibilityEvent event = events.get(index);
+    int type = event.getEventType();
+    if (!isCoalescable(type)) return false;
+
+    long window = ApplicationParameters.ACCESSIBILITY_EVENT_COALESCE_WINDOW;
+    long time = event.getEventTime();
+    int count = events.size();
+
+    for (int newerIndex=index+1; newerIndex<count; newerIndex+=1) {
+      AccessibilityEvent newer = events.get(newerIndex);
+
+      if ((newer.getEventTime() - time) > window) break;
+      if (newer.getWindowId() != event.getWindowId()) continue;
+      if (!isSupersededBy(type, newer.getEventType())) continue;
+      if (!coversContentChanges(event, newer)) continue;
+      if (haveSameSource(sources, index, newerIndex)) return true;
+    }
+
+    return false;
+  }
+
+  private final List<AccessibilityEvent> takeEvents () throws InterruptedException {
+    synchronized (pendingEvents) {
+      while (true) {
+        if (!pendingEvents.isEmpty()) {
+          AccessibilityEvent first = pendingEvents.getFirst();
+
+          if (isCoalescable(first.getEventType())) {
+            // give a burst the chance to accumulate so that only its final state is rendered
+            long delay = first.getEventTime()
+                       + ApplicationParameters.ACCESSIBILITY_EVENT_COALESCE_DELAY
+                       - SystemClock.uptimeMillis();
+
+            if (delay > 0) {
+              pendingEvents.wait(delay);
+              continue;
+            }
+          }
+
+          List<AccessibilityEvent> events = new ArrayList<AccessibilityEvent>(pendingEvents);
+          pendingEvents.clear();
+          return events;
+        }
+
+        pendingEvents.wait();
+      }
+    }
+  }
+
+  private final void handleEvents (List<AccessibilityEvent> events) {
+    int count = events.size();
+    EventSources sources = new EventSources(events);
+
+    try {
+      for (int index=0; index<count; index+=1) {
+        AccessibilityEvent event = events.get(index);
+
+        if (isSuperseded(events, index, sources)) {
+          synchronized (pendingEvents) {
+            mergedCount += 1;
+          }
+
+          if (ApplicationSettings.LOG_UPDATES) {
+            Log.d(LOG_TAG, "accessibility event superseded: " + event.toString());
+          }
+        } else {
+          handleEvent(event);
+
+          synchronized (pendingEvents) {
+            handledCount += 1;
+          }
+        }
+      }
+    } finally {
+      sources.recycle();
+
+      for (AccessibilityEvent event : events) {
+        event.recycle();
+      }
+    }
+  }
+
+  private final void runQueueThread () {
+    String name = queueThread.getName();
+    Log.d(LOG_TAG, (name + " thread starting"));
+
+    try {
+      while (true) {
+        handleEvents(takeEvents());
+
+        synchronized (pendingEvents) {
+          if (!pendingEvents.isEmpty()) continue;
+        }
+
+        onQueueEmpty();
+      }
+    } catch (InterruptedException exception) {
+      Log.w(LOG_TAG, (name + " wait interrupted"));
+    } finally {
+      Log.d(LOG_TAG, (name + " thread stopping"));
+    }
+  }
+
+  public final void enqueue (AccessibilityEvent event) {
+    // the framework recycles the event once its callback returns
+    AccessibilityEvent copy = AccessibilityEvent.obtain(event);
+    AccessibilityEvent evicted = null;
+
+    synchronized (pendingEvents) {
+      if (queueThread == null) {
+        queueThread = new Thread("accessibility-events") {
+          @Override
+          public void run () {
+            runQueueThread();
+          }
+        };
+
+        queueThread.setDaemon(true);
+        queueThread.start();
+      }
+
+      if (pendingEvents.size() >= ApplicationParameters.ACCESSIBILITY_EVENT_QUEUE_LIMIT) {
+        // the queue is allowed to grow when there's nothing which can safely be dropped
+        Iterator<AccessibilityEvent> iterator = pendingEvents.iterator();
+
+        while (iterator.hasNext()) {
+          AccessibilityEvent oldest = iterator.next();
+
+          if (isEvictable(oldest.getEventType())) {
+            iterator.remove();
+            evicted = oldest;
+            droppedCount += 1;
+            break;
+          }
+        }
+      }
+
+      pendingEvents.addLast(copy);
+      enqueuedCount += 1;
+
+      int depth = pendingEvents.size();
+      if (depth > maximumDepth) maximumDepth = depth;
+
+      pendingEvents.notify();
+    }
+
+    if (evicted != null) {
+      // the screen snapshot relies on these events to learn what's changed
+      AccessibilityNodeInfo source = evicted.getSource();
+
+      if (source != null) {
+        ScreenSnapshot.invalidate(source, true);
+        source.recycle();
+      } else {
+        ScreenSnapshot.clear();
+      }
+
+      evicted.recycle();
+    }
+  }
+
+  public final int getQueueDepth () {
+    synchronized (pendingEvents) {
+      return pendingEvents.size();
+    }
+  }
+
+  public final int getMaximumDepth () {
+    synchronized (pendingEvents) {
+      return maximumDepth;
+    }
+  }
+
+  public final long getEnqueuedCount () {
+    synchronized (pendingEvents) {
+      return enqueuedCount;
+    }
+  }
+
+  public final long getHandledCount () {
+    synchronized (pendingEvents) {
+      return handledCount;
+    }
+  }
+
+  public final long getMergedCount () {
+    synchronized (pendingEvents) {
+      return mergedCount;
+    }
+  }
+
+  public final long getDroppedCount () {
+    synchronized (pendingEvents) {
+      return droppedCount;
+    }
+  }
+
+  public final String getStatistics () {
+    synchronized (pendingEvents) {
+      return String.format(
+        "depth:%d max:%d enqueued:%d handled:%d merged:%d dropped:%d",
+        pendingEvents.size(), maximumDepth,
+        enqueuedCount, handledCount, mergedCount, droppedCount
+      );
+    }
+  }
+
+  public AccessibilityEventQueue () {
+  }
+}
@@ -436,8 +436,11 @@ public class HostEndpoint extends InputEndpoint {
     TextChangeFunction function = new TextChangeFunction() {
       @Override
       public boolean changeText () {
-        return connection.setComposingRegion(start, end)
-            && connection.commitText(addSpans(text), 1);
+        if (!connection.setComposingRegion(start, end)) return false;
+        if (!connection.commitText(addSpans(text), 1)) return false;
+
+        adjustLineIndex(start, end, text);
+        return true;
       }
     };
 
@@ -1,5 +1,6 @@
 package org.nbp.b2g.ui.host;
 import org.nbp.b2g.ui.*;
+import org.nbp.b2g.ui.remote.RemoteStatistics;
 
 import java.io.File;
 import java.io.IOException;
@@ -394,6 +395,21 @@ public class MaintenanceActivity extends ProgrammaticActivity {
     return button;
   }
 
+  private View createRemoteStatisticsButton () {
+    Button button = newButton(
+      R.string.maintenance_RemoteStatistics_label,
+      new Button.OnClickListener() {
+        @Override
+        public void onClick (View view) {
+          RemoteStatistics.logSummary();
+          setMessage(RemoteStatistics.getSummary());
+        }
+      }
+    );
+
+    return button;
+  }
+
   private View createUpdatePackageButton (int label, final int uri) {
     Button button = newButton(
       label,
@@ -461,6 +477,7 @@ public class MaintenanceActivity extends ProgrammaticActivity {
 
       createRecoveryModeButton(),
       createViewRecoveryLogButton(),
+      createRemoteStatisticsButton(),
 
       createClearCacheButton(),
       createFactoryResetButton(),
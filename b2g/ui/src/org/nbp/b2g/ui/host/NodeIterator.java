@@ -16,15 +16,15 @@ public class NodeIterator implements Logger.Iterator {
     if (node != null) {
       logContent.add((name + " " + ScreenUtilities.toString(node)));
 
-      int childCount = node.getChildCount();
-      for (int childIndex=0; childIndex<childCount; childIndex+=1) {
-        AccessibilityNodeInfo child = node.getChild(childIndex);
+      List<AccessibilityNodeInfo> children = ScreenSnapshot.getChildren(node);
+      int childCount = children.size();
 
-        if (child != null) {
-          logTree(child, (name + "." + childIndex));
-          child.recycle();
-        }
+      for (int childIndex=0; childIndex<childCount; childIndex+=1) {
+        AccessibilityNodeInfo child = children.get(childIndex);
+        if (child != null) logTree(child, (name + "." + childIndex));
       }
+
+      ScreenSnapshot.recycle(children);
     }
   }
 
@@ -7,6 +7,7 @@ import java.util.List;
 
 import org.nbp.common.Timeout;
 import org.nbp.common.SettingsUtilities;
+import org.nbp.common.dictionary.SpellingIndex;
 
 import android.util.Log;
 
@@ -150,6 +151,9 @@ public class ScreenMonitor extends AccessibilityService {
 
     ApplicationContext.setContext(this);
     write(R.string.message_no_screen_content);
+
+    // so that the word list's index is ready before it's first needed
+    SpellingIndex.get();
   }
 
   @Override
@@ -420,6 +424,7 @@ public class ScreenMonitor extends AccessibilityService {
   private void handleAccessibilityEvent (AccessibilityEvent event) {
     int type = event.getEventType();
     AccessibilityNodeInfo source = event.getSource();
+    ScreenSnapshot.onAccessibilityEvent(event, source);
 
     switch (type) {
       case AccessibilityEvent.TYPE_VIEW_ACCESSIBILITY_FOCUS_CLEARED:
@@ -524,6 +529,11 @@ public class ScreenMonitor extends AccessibilityService {
   }
 
   private final Timeout idleScreenDelay = new Timeout(ApplicationParameters.IDLE_SCREEN_DELAY, "idle-screen-delay") {
+    @Override
+    protected boolean isBlocking () {
+      return true;
+    }
+
     @Override
     public void run () {
       synchronized (ACCESSIBILITY_EVENT_LOCK) {
@@ -551,11 +561,9 @@ public class ScreenMonitor extends AccessibilityService {
     }
   };
 
-  @Override
-  public void onAccessibilityEvent (final AccessibilityEvent event) {
-    synchronized (idleScreenDelay) {
-      idleScreenDelay.cancel();
-
+  private final AccessibilityEventQueue eventQueue = new AccessibilityEventQueue() {
+    @Override
+    protected void handleEvent (final AccessibilityEvent event) {
       synchronized (ACCESSIBILITY_EVENT_LOCK) {
         if (ApplicationSettings.LOG_UPDATES) {
           Log.d(LOG_TAG, "accessibility event starting: " + event.toString());
@@ -572,8 +580,6 @@ public class ScreenMonitor extends AccessibilityService {
               }
             }
           );
-
-          idleScreenDelay.start();
         } finally {
           if (ApplicationSettings.LOG_UPDATES) {
             Log.d(LOG_TAG, "accessibility event finished");
@@ -581,6 +587,30 @@ public class ScreenMonitor extends AccessibilityService {
         }
       }
     }
+
+    @Override
+    protected void onQueueEmpty () {
+      synchronized (idleScreenDelay) {
+        // an event may have been queued since the worker last looked
+        if (getQueueDepth() == 0) idleScreenDelay.start();
+      }
+
+      if (ApplicationSettings.LOG_UPDATES) {
+        Log.d(LOG_TAG, "accessibility event queue: " + getStatistics());
+      }
+    }
+  };
+
+  public final AccessibilityEventQueue getEventQueue () {
+    return eventQueue;
+  }
+
+  @Override
+  public void onAccessibilityEvent (AccessibilityEvent event) {
+    synchronized (idleScreenDelay) {
+      idleScreenDelay.cancel();
+      eventQueue.enqueue(event);
+    }
   }
 
   @Override
@@ -0,0 +1,375 @@
+package org.nbp.b2g.ui.host;
+import org.nbp.b2g.ui.*;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+
+import org.nbp.common.CommonUtilities;
+
+import android.util.Log;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityEvent;
+
+public abstract class ScreenSnapshot {
+  private final static String LOG_TAG = ScreenSnapshot.class.getName();
+
+  public interface NodeTester {
+    public boolean testNode (AccessibilityNodeInfo node);
+  }
+
+  private final static int STALE_NODE    = 0X1;
+  private final static int STALE_SUBTREE = 0X2;
+
+  private final static class Node {
+    private AccessibilityNodeInfo nodeInfo;
+    private final Node parentNode;
+    private Node[] childNodes = null;
+    private int staleFlags = 0;
+
+    public Node (AccessibilityNodeInfo info, Node parent) {
+      nodeInfo = info;
+      parentNode = parent;
+    }
+  }
+
+  private final static Map<AccessibilityNodeInfo, Node> nodeIndex =
+    new HashMap<AccessibilityNodeInfo, Node>();
+
+  private static Node rootNode = null;
+  private static int rootWindow = -1;
+
+  private static void addChildren (Node node, boolean index) {
+    AccessibilityNodeInfo info = node.nodeInfo;
+    int childCount = info.getChildCount();
+    Node[] children = new Node[childCount];
+
+    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
+      AccessibilityNodeInfo child = info.getChild(childIndex);
+      if (child != null) children[childIndex] = newNode(child, node, index);
+    }
+
+    node.childNodes = children;
+  }
+
+  private static Node newNode (AccessibilityNodeInfo info, Node parent, boolean index) {
+    Node node = new Node(info, parent);
+    if (index) nodeIndex.put(info, node);
+    addChildren(node, index);
+    return node;
+  }
+
+  private static void removeChildren (Node node) {
+    for (Node child : node.childNodes) {
+      if (child != null) removeNode(child);
+    }
+
+    node.childNodes = null;
+  }
+
+  private static void removeNode (Node node) {
+    removeChildren(node);
+
+    AccessibilityNodeInfo info = node.nodeInfo;
+    if (nodeIndex.get(info) == node) nodeIndex.remove(info);
+    info.recycle();
+  }
+
+  private static void detachNode (Node node) {
+    Node parent = node.parentNode;
+
+    if (parent != null) {
+      Node[] children = parent.childNodes;
+
+      for (int childIndex=0; childIndex<children.length; childIndex+=1) {
+        if (children[childIndex] == node) {
+          children[childIndex] = null;
+          break;
+        }
+      }
+    } else if (node == rootNode) {
+      rootNode = null;
+      rootWindow = -1;
+    }
+
+    removeNode(node);
+  }
+
+  private static Node refreshNode (Node node) {
+    int flags = node.staleFlags;
+    if (flags == 0) return node;
+
+    AccessibilityNodeInfo info = node.nodeInfo;
+    AccessibilityNodeInfo refreshed = ScreenUtilities.getRefreshedNode(info);
+
+    if (refreshed == null) {
+      detachNode(node);
+      return null;
+    }
+
+    boolean indexed = nodeIndex.get(info) == node;
+    if (indexed) nodeIndex.remove(info);
+    info.recycle();
+
+    node.nodeInfo = refreshed;
+    node.staleFlags = 0;
+    if (indexed) nodeIndex.put(refreshed, node);
+
+    if ((flags & STALE_SUBTREE) != 0) {
+      removeChildren(node);
+      addChildren(node, indexed);
+    }
+
+    return node;
+  }
+
+  private static void clearSnapshot () {
+    if (rootNode != null) {
+      removeNode(rootNode);
+      rootNode = null;
+      rootWindow = -1;
+    }
+
+    nodeIndex.clear();
+  }
+
+  private static boolean buildSnapshot (AccessibilityNodeInfo info) {
+    clearSnapshot();
+
+    AccessibilityNodeInfo root = ScreenUtilities.getRootNode(info);
+    if (root == null) return false;
+
+    rootNode = newNode(root, null, true);
+    rootWindow = root.getWindowId();
+
+    if (ApplicationSettings.LOG_NAVIGATION) {
+      Log.d(LOG_TAG, String.format(
+        "screen snapshot built: window:%d nodes:%d",
+        rootWindow, nodeIndex.size()
+      ));
+    }
+
+    return true;
+  }
+
+  private static Node findAncestor (AccessibilityNodeInfo info) {
+    AccessibilityNodeInfo ancestor = info.getParent();
+
+    while (ancestor != null) {
+      Node node = nodeIndex.get(ancestor);
+
+      if (node != null) {
+        ancestor.recycle();
+        return node;
+      }
+
+      AccessibilityNodeInfo parent = ancestor.getParent();
+      ancestor.recycle();
+      ancestor = parent;
+    }
+
+    return null;
+  }
+
+  // a node which appeared after the snapshot was built is added by reloading its nearest known ancestor
+  private static boolean addNode (AccessibilityNodeInfo info) {
+    Node ancestor = findAncestor(info);
+    if (ancestor == null) return false;
+
+    ancestor.staleFlags |= STALE_SUBTREE;
+    AccessibilityNodeInfo ancestorInfo = AccessibilityNodeInfo.obtain(ancestor.nodeInfo);
+
+    try {
+      return getNode(ancestorInfo) != null;
+    } finally {
+      ancestorInfo.recycle();
+    }
+  }
+
+  private static Node getNode (AccessibilityNodeInfo info) {
+    Node node = nodeIndex.get(info);
+
+    if (node == null) {
+      if (rootNode == null) {
+        // the snapshot is only rebuilt after it has been cleared
+        if (!buildSnapshot(info)) return null;
+      } else {
+        if (info.getWindowId() != rootWindow) return null;
+        if (!addNode(info)) return null;
+      }
+
+      if ((node = nodeIndex.get(info)) == null) return null;
+    }
+
+    {
+      Node stale = null;
+
+      for (Node ancestor=node.parentNode; ancestor!=null; ancestor=ancestor.parentNode) {
+        if ((ancestor.staleFlags & STALE_SUBTREE) != 0) stale = ancestor;
+      }
+
+      if (stale != null) {
+        refreshNode(stale);
+        if ((node = nodeIndex.get(info)) == null) return null;
+      }
+    }
+
+    return refreshNode(node);
+  }
+
+  private static Node findNode (
+    Node node, NodeTester tester, boolean childrenFirst,
+    List<AccessibilityNodeInfo> matches
+  ) {
+    if ((node = refreshNode(node)) == null) return null;
+
+    if (!childrenFirst) {
+      if (tester.testNode(node.nodeInfo)) {
+        if (matches == null) return node;
+        matches.add(AccessibilityNodeInfo.obtain(node.nodeInfo));
+      }
+    }
+
+    for (Node child : node.childNodes) {
+      if (child != null) {
+        Node found = findNode(child, tester, childrenFirst, matches);
+        if (found != null) return found;
+      }
+    }
+
+    if (childrenFirst) {
+      if (tester.testNode(node.nodeInfo)) {
+        if (matches == null) return node;
+        matches.add(AccessibilityNodeInfo.obtain(node.nodeInfo));
+      }
+    }
+
+    return null;
+  }
+
+  private static AccessibilityNodeInfo findNode (
+    AccessibilityNodeInfo root, NodeTester tester, boolean childrenFirst,
+    List<AccessibilityNodeInfo> matches
+  ) {
+    synchronized (nodeIndex) {
+      Node node = getNode(root);
+      Node detached = null;
+
+      if (node == null) {
+        // the node isn't within the snapshot's window - walk it without keeping it
+        node = detached = newNode(AccessibilityNodeInfo.obtain(root), null, false);
+      }
+
+      try {
+        Node found = findNode(node, tester, childrenFirst, matches);
+        if (found == null) return null;
+        return AccessibilityNodeInfo.obtain(found.nodeInfo);
+      } finally {
+        if (detached != null) removeNode(detached);
+      }
+    }
+  }
+
+  public static AccessibilityNodeInfo findNode (
+    AccessibilityNodeInfo root, NodeTester tester, boolean childrenFirst
+  ) {
+    return findNode(root, tester, childrenFirst, null);
+  }
+
+  public static List<AccessibilityNodeInfo> findNodes (
+    AccessibilityNodeInfo root, NodeTester tester, boolean childrenFirst
+  ) {
+    List<AccessibilityNodeInfo> matches = new ArrayList<AccessibilityNodeInfo>();
+    findNode(root, tester, childrenFirst, matches);
+    return matches;
+  }
+
+  public static List<AccessibilityNodeInfo> getChildren (AccessibilityNodeInfo parent) {
+    List<AccessibilityNodeInfo> children = new ArrayList<AccessibilityNodeInfo>();
+
+    synchronized (nodeIndex) {
+      Node node = getNode(parent);
+
+      if (node != null) {
+        for (Node child : node.childNodes) {
+          if (child != null) child = refreshNode(child);
+          children.add((child != null)? AccessibilityNodeInfo.obtain(child.nodeInfo): null);
+        }
+
+        return children;
+      }
+    }
+
+    int childCount = parent.getChildCount();
+
+    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
+      children.add(parent.getChild(childIndex));
+    }
+
+    return children;
+  }
+
+  public static void recycle (List<AccessibilityNodeInfo> nodes) {
+    for (AccessibilityNodeInfo node : nodes) {
+      if (node != null) node.recycle();
+    }
+  }
+
+  public static void invalidate (AccessibilityNodeInfo info, boolean subtree) {
+    if (info == null) return;
+
+    synchronized (nodeIndex) {
+      Node node = nodeIndex.get(info);
+      if (node != null) node.staleFlags |= subtree? STALE_SUBTREE: STALE_NODE;
+    }
+  }
+
+  public static void clear () {
+    synchronized (nodeIndex) {
+      clearSnapshot();
+    }
+  }
+
+  public static int getNodeCount () {
+    synchronized (nodeIndex) {
+      return nodeIndex.size();
+    }
+  }
+
+  private static boolean isSubtreeChange (AccessibilityEvent event) {
+    if (CommonUtilities.haveKitkat) {
+      int types = event.getContentChangeTypes();
+
+      if (types != AccessibilityEvent.CONTENT_CHANGE_TYPE_UNDEFINED) {
+        return (types & AccessibilityEvent.CONTENT_CHANGE_TYPE_SUBTREE) != 0;
+      }
+    }
+
+    return true;
+  }
+
+  public static void onAccessibilityEvent (AccessibilityEvent event, AccessibilityNodeInfo source) {
+    switch (event.getEventType()) {
+      case AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED:
+        clear();
+        break;
+
+      case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+        invalidate(source, isSubtreeChange(event));
+        break;
+
+      case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+        invalidate(source, true);
+        break;
+
+      default:
+        invalidate(source, false);
+        break;
+    }
+  }
+
+  private ScreenSnapshot () {
+  }
+}
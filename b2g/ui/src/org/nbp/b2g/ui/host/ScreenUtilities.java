@@ -1,6 +1,8 @@
 package org.nbp.b2g.ui.host;
 import org.nbp.b2g.ui.*;
 
+import java.util.List;
+
 import org.nbp.common.CommonUtilities;
 import org.nbp.common.LanguageUtilities;
 
@@ -273,29 +275,27 @@ public abstract class ScreenUtilities {
     return root;
   }
 
-  public static AccessibilityNodeInfo findSelectedNode (AccessibilityNodeInfo root) {
-    root = AccessibilityNodeInfo.obtain(root);
-    AccessibilityNodeInfo node = null;
-    int childCount = root.getChildCount();
+  // a node which loses its selection doesn't always report it so the
+  // snapshot's selected state is only trusted once it's been refreshed
+  private final static ScreenSnapshot.NodeTester selectedNodeTester =
+    new ScreenSnapshot.NodeTester() {
+      @Override
+      public boolean testNode (AccessibilityNodeInfo node) {
+        if (!node.isSelected()) return false;
 
-    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
-      AccessibilityNodeInfo child = root.getChild(childIndex);
+        AccessibilityNodeInfo refreshed = getRefreshedNode(node);
+        if (refreshed == null) return false;
 
-      if (child != null) {
-        node = findSelectedNode(child);
-        child.recycle();
-        if (node != null) break;
-      }
-    }
+        boolean selected = refreshed.isSelected();
+        refreshed.recycle();
 
-    if (node == null) {
-      if (root.isSelected()) {
-        return root;
+        if (!selected) ScreenSnapshot.invalidate(node, false);
+        return selected;
       }
-    }
+    };
 
-    root.recycle();
-    return node;
+  public static AccessibilityNodeInfo findSelectedNode (AccessibilityNodeInfo root) {
+    return ScreenSnapshot.findNode(root, selectedNodeTester, true);
   }
 
   public static boolean isContainer (AccessibilityNodeInfo node) {
@@ -373,25 +373,16 @@ public abstract class ScreenUtilities {
     return true;
   }
 
-  public static AccessibilityNodeInfo findSignificantNode (AccessibilityNodeInfo root) {
-    root = AccessibilityNodeInfo.obtain(root);
-    if (isSignificant(root)) return root;
-
-    AccessibilityNodeInfo node = null;
-    int childCount = root.getChildCount();
-
-    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
-      AccessibilityNodeInfo child = root.getChild(childIndex);
-
-      if (child != null) {
-        node = findSignificantNode(child);
-        child.recycle();
-        if (node != null) break;
+  private final static ScreenSnapshot.NodeTester significantNodeTester =
+    new ScreenSnapshot.NodeTester() {
+      @Override
+      public boolean testNode (AccessibilityNodeInfo node) {
+        return isSignificant(node);
       }
-    }
+    };
 
-    root.recycle();
-    return node;
+  public static AccessibilityNodeInfo findSignificantNode (AccessibilityNodeInfo root) {
+    return ScreenSnapshot.findNode(root, significantNodeTester, false);
   }
 
   public static AccessibilityNodeInfo findCurrentNode (AccessibilityNodeInfo root) {
@@ -452,37 +443,30 @@ public abstract class ScreenUtilities {
   }
 
   public static void deselectTree (AccessibilityNodeInfo root) {
-    int childCount = root.getChildCount();
-
-    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
-      AccessibilityNodeInfo child = root.getChild(childIndex);
+    List<AccessibilityNodeInfo> nodes = ScreenSnapshot.findNodes(root, selectedNodeTester, true);
 
-      if (child != null) {
-        deselectTree(child);
-        child.recycle();
-      }
-    }
-
-    if (root.isSelected()) {
-      if (root.performAction(AccessibilityNodeInfo.ACTION_CLEAR_SELECTION)) {
-        logNavigation(root, "deselect succeeded");
+    for (AccessibilityNodeInfo node : nodes) {
+      if (node.performAction(AccessibilityNodeInfo.ACTION_CLEAR_SELECTION)) {
+        logNavigation(node, "deselect succeeded");
+        ScreenSnapshot.invalidate(node, false);
       } else {
-        logNavigation(root, "deselect failed");
+        logNavigation(node, "deselect failed");
       }
     }
+
+    ScreenSnapshot.recycle(nodes);
   }
 
   public static void deselectSiblings (AccessibilityNodeInfo parent, AccessibilityNodeInfo node) {
-    int childCount = parent.getChildCount();
-
-    for (int childIndex=0; childIndex<childCount; childIndex+=1) {
-      AccessibilityNodeInfo child = parent.getChild(childIndex);
+    List<AccessibilityNodeInfo> children = ScreenSnapshot.getChildren(parent);
 
+    for (AccessibilityNodeInfo child : children) {
       if (child != null) {
         if (!child.equals(node)) deselectTree(child);
-        child.recycle();
       }
     }
+
+    ScreenSnapshot.recycle(children);
   }
 
   public static void deselectChildren (AccessibilityNodeInfo parent) {
@@ -497,6 +481,7 @@ public abstract class ScreenUtilities {
         logNavigation(node, "select unnecessary");
       } else if (node.performAction(AccessibilityNodeInfo.ACTION_SELECT)) {
         logNavigation(node, "select succeeded");
+        ScreenSnapshot.invalidate(node, false);
       } else {
         logNavigation(node, "select failed");
       }
@@ -504,6 +489,7 @@ public abstract class ScreenUtilities {
       if (node.isFocusable()) {
         if (node.performAction(AccessibilityNodeInfo.ACTION_FOCUS)) {
           logNavigation(node, "set input focus succeeded");
+          ScreenSnapshot.invalidate(node, false);
           break;
         }
 
@@ -528,6 +514,7 @@ public abstract class ScreenUtilities {
       logNavigation(node, "set accessibility focus unnecessary");
     } else if (node.performAction(AccessibilityNodeInfo.ACTION_ACCESSIBILITY_FOCUS)) {
       logNavigation(node, "set accessibility focus succeeded");
+      ScreenSnapshot.invalidate(node, false);
     } else {
       logNavigation(node, "set accessibility focus failed");
     }
@@ -16,29 +16,26 @@ public class FindEndpoint extends PromptEndpoint {
   private final Searcher forwardSearcher = new Searcher() {
     @Override
     public final boolean search (Matcher matcher, int start, int end) {
-      while (++start < end) {
-        matcher.region(start, end);
-        if (matcher.lookingAt()) return true;
-        if (matcher.hitEnd()) break;
-      }
-
-      return false;
+      if (++start >= end) return false;
+      return matcher.find(start);
     }
   };
 
   private final Searcher backwardSearcher = new Searcher() {
     @Override
     public final boolean search (Matcher matcher, int start, int end) {
-      int original = start;
-
-      while (--start >= 0) {
-        matcher.region(start, end);
-
-        if (matcher.lookingAt()) {
-          if (matcher.start(1) < original) {
-            return true;
-          }
-        }
+      // the bounds are transparent and not anchoring so that a match which
+      // starts within the region is tested against the whole text
+      matcher.useTransparentBounds(true);
+      matcher.useAnchoringBounds(false);
+
+      // work back from the original offset, testing only for a match that
+      // starts at each position, so that the cost depends on how far back
+      // the previous occurrence is rather than on the length of the text
+      for (int from=start-1; from>=0; from-=1) {
+        matcher.region(from, end);
+        if (!matcher.lookingAt()) continue;
+        if (matcher.start(1) < start) return true;
       }
 
       return false;
@@ -54,9 +51,8 @@ public class FindEndpoint extends PromptEndpoint {
 
       synchronized (endpoint) {
         int start = endpoint.getBrailleStart();
-        String text = endpoint.getText().toString();
+        CharSequence text = endpoint.getText();
         Matcher matcher = searchPattern.matcher(text);
-        matcher.useAnchoringBounds(false);
 
         if (currentSearcher.search(matcher, start, text.length())) {
           endpoint.setLineIndent(endpoint.setLine(matcher.start(1)));
@@ -71,6 +67,39 @@ public class FindEndpoint extends PromptEndpoint {
     return false;
   }
 
+  public final int countOccurrences (Endpoint endpoint) {
+    int count = 0;
+
+    if (searchPattern != null) {
+      synchronized (endpoint) {
+        CharSequence text = endpoint.getText();
+        Matcher matcher = searchPattern.matcher(text);
+        int length = text.length();
+        int from = 0;
+
+        while (from < length) {
+          if (!matcher.find(from)) break;
+          count += 1;
+          from = matcher.start() + 1;
+        }
+      }
+    }
+
+    return count;
+  }
+
+  public final boolean reportOccurrenceCount (Endpoint endpoint) {
+    int count = countOccurrences(endpoint);
+
+    if (count == 0) {
+      ApplicationUtilities.message(R.string.message_not_found);
+      return false;
+    }
+
+    ApplicationUtilities.message(getString(R.string.message_occurrence_count), count);
+    return true;
+  }
+
   public final boolean findNextOccurrence (Endpoint endpoint) {
     currentSearcher = forwardSearcher;
     return findOccurrence(endpoint);
@@ -37,9 +37,11 @@ public abstract class PromptEndpoint extends InputEndpoint {
   public final boolean replaceText (int start, int end, CharSequence text) {
     if (!canInsertText(text)) return false;
 
+    String trailer = getTrailer();
     buffer.delete(start, end);
     buffer.insert(start, text);
 
+    if (getTrailer().equals(trailer)) adjustLineIndex(start, end, text);
     setText();
     if (!setCursor((start + text.length()))) return false;
     return write();
@@ -4,6 +4,8 @@ import org.nbp.b2g.ui.*;
 import java.util.Map;
 import java.util.LinkedHashMap;
 
+import java.nio.ByteBuffer;
+
 import org.nbp.common.Tones;
 import org.nbp.common.CharacterUtilities;
 
@@ -32,40 +34,34 @@ public class BaumProtocol extends Protocol {
   private int inputLength;
   private int inputCount;
 
-  private final boolean send (Channel channel, byte b) {
-    if (b == ESCAPE) {
-      if (!channel.send(ESCAPE)) {
-        return false;
-      }
-    }
-
-    return channel.send(b);
-  }
-
-  private final Channel begin (int command) {
-    Channel channel = getChannel();
-
-    if (channel.send(ESCAPE)) {
-      if (send(channel, (byte)command)) {
-        return channel;
-      }
-    }
+  // each packet is escaped into this buffer and then sent as a whole
+  private ByteBuffer outputBuffer = ByteBuffer.allocate((2 + getCellCount()) * 2);
 
-    return null;
+  private final void putByte (byte b) {
+    if (b == ESCAPE) outputBuffer.put(ESCAPE);
+    outputBuffer.put(b);
   }
 
-  private final boolean send (int command, byte[] bytes) {
+  private final synchronized boolean send (int command, byte[] bytes) {
     if (bytes == null) return true;
     if (bytes.length == 0) return true;
 
-    Channel channel = begin(command);
-    if (channel == null) return false;
-
-    for (int index=0; index<bytes.length; index+=1) {
-      if (!send(channel, bytes[index])) return false;
+    {
+      int size = (1 + bytes.length) * 2 + 1;
+      if (size > outputBuffer.capacity()) outputBuffer = ByteBuffer.allocate(size);
     }
 
-    return true;
+    outputBuffer.clear();
+    outputBuffer.put(ESCAPE);
+    putByte((byte)command);
+    for (byte b : bytes) putByte(b);
+
+    int length = outputBuffer.position();
+    RemoteStatistics.onFrameSent(length, (length - (2 + bytes.length)));
+
+    return getChannel().send(
+      outputBuffer.array(), outputBuffer.arrayOffset(), length
+    );
   }
 
   private final boolean sendErrorCode (int code) {
@@ -85,6 +81,7 @@ public class BaumProtocol extends Protocol {
     }
 
     public final boolean send () {
+      RemoteStatistics.onKeysSent();
       return BaumProtocol.this.send(command, elements)
           && flushOutput();
     }
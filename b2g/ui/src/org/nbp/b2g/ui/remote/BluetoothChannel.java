@@ -255,6 +255,20 @@ public class BluetoothChannel extends Channel {
     return false;
   }
 
+  @Override
+  public final boolean send (byte[] bytes, int offset, int length) {
+    if (outputStream == null) return true;
+
+    try {
+      outputStream.write(bytes, offset, length);
+      return true;
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("channel write error: " + exception.getMessage()));
+    }
+
+    return false;
+  }
+
   @Override
   public final boolean flush () {
     if (outputStream == null) return true;
@@ -27,8 +27,15 @@ public abstract class Channel extends Component implements Runnable {
   protected abstract void stopChannelThread ();
 
   public abstract boolean send (byte b);
+  public abstract boolean send (byte[] bytes, int offset, int length);
   public abstract boolean flush ();
 
+  public final boolean flushOutput () {
+    if (!flush()) return false;
+    RemoteStatistics.onOutputFlushed();
+    return true;
+  }
+
   @Override
   public final void run () {
     Log.d(LOG_TAG, "channel thread starting");
@@ -91,6 +98,11 @@ public abstract class Channel extends Component implements Runnable {
   }
 
   private Timeout readTimeout = new Timeout(ApplicationParameters.REMOTE_DISPLAY_READ_TIMEOUT, "remote-display-read-timeout") {
+    @Override
+    protected boolean isBlocking () {
+      return true;
+    }
+
     @Override
     public void run () {
       synchronized (Channel.this) {
@@ -101,7 +113,16 @@ public abstract class Channel extends Component implements Runnable {
     }
   };
 
+  private static int getBacklog (InputStream stream) {
+    try {
+      return stream.available();
+    } catch (IOException exception) {
+      return 0;
+    }
+  }
+
   protected final void handleInput (InputStream stream) {
+    RemoteStatistics.startSession();
     resetInput();
 
     while (true) {
@@ -124,12 +145,14 @@ public abstract class Channel extends Component implements Runnable {
 
         if (!handleInput((byte)(b & BYTE_MASK))) {
           readTimeout.start();
-        } else if (!flush()) {
-          break;
+        } else {
+          RemoteStatistics.onPacketReceived(getBacklog(stream));
+          if (!flushOutput()) break;
         }
       }
     }
 
     readTimeout.cancel();
+    RemoteStatistics.endSession();
   }
 }
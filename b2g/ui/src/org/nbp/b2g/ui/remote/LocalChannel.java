@@ -0,0 +1,93 @@
+package org.nbp.b2g.ui.remote;
+import org.nbp.b2g.ui.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import android.util.Log;
+import android.os.Process;
+
+import android.net.LocalServerSocket;
+import android.net.LocalSocket;
+import android.net.LocalSocketAddress;
+import android.net.Credentials;
+
+public class LocalChannel extends StreamChannel<LocalServerSocket, LocalSocket> {
+  private final static String LOG_TAG = LocalChannel.class.getName();
+
+  public LocalChannel () {
+    super();
+  }
+
+  @Override
+  protected final String getChannelName () {
+    return "Local";
+  }
+
+  @Override
+  protected final LocalServerSocket newServer () throws IOException {
+    return new LocalServerSocket(ApplicationParameters.REMOTE_DISPLAY_SOCKET_NAME);
+  }
+
+  @Override
+  protected final void closeServer (LocalServerSocket server) throws IOException {
+    server.close();
+  }
+
+  @Override
+  protected final void wakeServer () {
+    // closing a local server socket doesn't interrupt a pending accept
+    // so connect to it in order to make the accept return
+    LocalSocket socket = new LocalSocket();
+
+    try {
+      socket.connect(new LocalSocketAddress(ApplicationParameters.REMOTE_DISPLAY_SOCKET_NAME));
+    } catch (IOException exception) {
+    }
+
+    try {
+      socket.close();
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("wake socket close error: " + exception.getMessage()));
+    }
+  }
+
+  @Override
+  protected final LocalSocket acceptSession (LocalServerSocket server) throws IOException {
+    return server.accept();
+  }
+
+  private final static int ROOT_UID = 0;
+  private final static int SHELL_UID = 2000;
+
+  @Override
+  protected final boolean isTrustedSession (LocalSocket session) throws IOException {
+    Credentials credentials = session.getPeerCredentials();
+    int uid = credentials.getUid();
+
+    if (uid == Process.myUid()) return true;
+    if (uid == ROOT_UID) return true;
+    if (uid == SHELL_UID) return true;
+    return false;
+  }
+
+  @Override
+  protected final void closeSession (LocalSocket session) throws IOException {
+    try {
+      session.shutdownInput();
+    } finally {
+      session.close();
+    }
+  }
+
+  @Override
+  protected final InputStream getInputStream (LocalSocket session) throws IOException {
+    return session.getInputStream();
+  }
+
+  @Override
+  protected final OutputStream getOutputStream (LocalSocket session) throws IOException {
+    return session.getOutputStream();
+  }
+}
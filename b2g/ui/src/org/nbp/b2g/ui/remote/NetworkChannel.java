@@ -0,0 +1,80 @@
+package org.nbp.b2g.ui.remote;
+import org.nbp.b2g.ui.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+public class NetworkChannel extends StreamChannel<ServerSocket, Socket> {
+  public NetworkChannel () {
+    super();
+  }
+
+  @Override
+  protected final String getChannelName () {
+    return "Network";
+  }
+
+  private final static String LOOPBACK_ADDRESS = "127.0.0.1";
+
+  @Override
+  protected final ServerSocket newServer () throws IOException {
+    int port = ApplicationParameters.REMOTE_DISPLAY_NETWORK_PORT;
+    InetSocketAddress address;
+
+    if (ApplicationSettings.NETWORK_ACCESS) {
+      address = new InetSocketAddress(port);
+    } else {
+      // only reachable from the device itself, e.g. via adb forward
+      address = new InetSocketAddress(InetAddress.getByName(LOOPBACK_ADDRESS), port);
+    }
+
+    ServerSocket server = new ServerSocket();
+    server.setReuseAddress(true);
+    server.bind(address);
+    return server;
+  }
+
+  @Override
+  protected final void closeServer (ServerSocket server) throws IOException {
+    server.close();
+  }
+
+  @Override
+  protected final Socket acceptSession (ServerSocket server) throws IOException {
+    Socket session = server.accept();
+
+    // key and cell packets are tiny so they mustn't wait to be coalesced
+    session.setTcpNoDelay(true);
+
+    return session;
+  }
+
+  @Override
+  protected final boolean isTrustedSession (Socket session) {
+    SocketAddress address = session.getRemoteSocketAddress();
+    if (!(address instanceof InetSocketAddress)) return false;
+    return ((InetSocketAddress)address).getAddress().isLoopbackAddress();
+  }
+
+  @Override
+  protected final void closeSession (Socket session) throws IOException {
+    session.close();
+  }
+
+  @Override
+  protected final InputStream getInputStream (Socket session) throws IOException {
+    return session.getInputStream();
+  }
+
+  @Override
+  protected final OutputStream getOutputStream (Socket session) throws IOException {
+    return session.getOutputStream();
+  }
+}
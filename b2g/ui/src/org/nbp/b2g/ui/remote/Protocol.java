@@ -32,6 +32,7 @@ public abstract class Protocol extends Component {
       text[i] = Braille.toCharacter(translateCell(cells[i]));
     }
 
+    RemoteStatistics.onCellsWritten();
     return write(new String(text));
   }
 
@@ -52,7 +53,7 @@ public abstract class Protocol extends Component {
   }
 
   protected final boolean flushOutput () {
-    return getChannel().flush();
+    return getChannel().flushOutput();
   }
 
   protected final static void logIgnoredByte (byte b) {
@@ -2,7 +2,8 @@ package org.nbp.b2g.ui.remote;
 import org.nbp.b2g.ui.*;
 
 public class RemoteEndpoint extends Endpoint {
-  private final Channel currentChannel;
+  private volatile Channel currentChannel;
+  private RemoteConnection currentConnection;
   private final Protocol currentProtocol;
 
   public final Channel getChannel () {
@@ -13,7 +14,28 @@ public class RemoteEndpoint extends Endpoint {
     return currentProtocol;
   }
 
+  private static Channel newChannel (RemoteConnection connection) {
+    switch (connection) {
+      case NETWORK:
+        return new NetworkChannel();
+
+      case LOCAL:
+        return new LocalChannel();
+
+      default:
+        return new BluetoothChannel();
+    }
+  }
+
   public final boolean start () {
+    RemoteConnection connection = ApplicationSettings.REMOTE_CONNECTION;
+
+    if (connection != currentConnection) {
+      currentChannel.stop();
+      currentChannel = newChannel(connection);
+      currentConnection = connection;
+    }
+
     return currentChannel.start();
   }
 
@@ -46,7 +68,8 @@ public class RemoteEndpoint extends Endpoint {
     super(false);
     addKeyBindings("remote");
 
-    currentChannel = new BluetoothChannel();
+    currentConnection = ApplicationSettings.REMOTE_CONNECTION;
+    currentChannel = newChannel(currentConnection);
     currentProtocol = new BaumProtocol();
   }
 }
@@ -0,0 +1,129 @@
+package org.nbp.b2g.ui.remote;
+import org.nbp.b2g.ui.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import android.util.Log;
+
+public abstract class RemoteStatistics {
+  private final static String LOG_TAG = RemoteStatistics.class.getName();
+
+  private RemoteStatistics () {
+  }
+
+  private final static Object STATISTICS_LOCK = new Object();
+
+  private static long sessionStart = 0;
+  private static long framesSent = 0;
+  private static long bytesSent = 0;
+  private static long bytesEscaped = 0;
+  private static long keyPacketsSent = 0;
+  private static long packetsReceived = 0;
+  private static int inputBacklog = 0;
+  private static int maximumBacklog = 0;
+
+  // write to flush latencies in microseconds - the most recent ones are kept for percentiles
+  private final static long[] latencySamples = new long[ApplicationParameters.REMOTE_LATENCY_SAMPLE_COUNT];
+  private static long latencyCount = 0;
+  private static long latencyTotal = 0;
+  private static long pendingWriteTime = 0;
+
+  private static long getTime () {
+    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+  }
+
+  public static void startSession () {
+    synchronized (STATISTICS_LOCK) {
+      sessionStart = getTime();
+      framesSent = 0;
+      bytesSent = 0;
+      bytesEscaped = 0;
+      keyPacketsSent = 0;
+      packetsReceived = 0;
+      inputBacklog = 0;
+      maximumBacklog = 0;
+
+      latencyCount = 0;
+      latencyTotal = 0;
+      pendingWriteTime = 0;
+    }
+  }
+
+  public static void endSession () {
+    String summary = getSummary();
+    Log.d(LOG_TAG, ("remote session ended: " + summary));
+    PersistentLog.write("remote session ended: %s", summary);
+  }
+
+  public static void onFrameSent (int length, int escapes) {
+    synchronized (STATISTICS_LOCK) {
+      framesSent += 1;
+      bytesSent += length;
+      bytesEscaped += escapes;
+    }
+  }
+
+  public static void onKeysSent () {
+    synchronized (STATISTICS_LOCK) {
+      keyPacketsSent += 1;
+    }
+  }
+
+  public static void onPacketReceived (int backlog) {
+    synchronized (STATISTICS_LOCK) {
+      packetsReceived += 1;
+      inputBacklog = backlog;
+      if (backlog > maximumBacklog) maximumBacklog = backlog;
+    }
+  }
+
+  public static void onCellsWritten () {
+    synchronized (STATISTICS_LOCK) {
+      if (pendingWriteTime == 0) pendingWriteTime = getTime();
+    }
+  }
+
+  public static void onOutputFlushed () {
+    synchronized (STATISTICS_LOCK) {
+      if (pendingWriteTime != 0) {
+        long latency = getTime() - pendingWriteTime;
+        pendingWriteTime = 0;
+
+        latencySamples[(int)(latencyCount % latencySamples.length)] = latency;
+        latencyCount += 1;
+        latencyTotal += latency;
+      }
+    }
+  }
+
+  private static long getPercentile (int percentile) {
+    int count = (int)Math.min(latencyCount, latencySamples.length);
+    if (count == 0) return 0;
+
+    long[] samples = Arrays.copyOf(latencySamples, count);
+    Arrays.sort(samples);
+
+    int index = ((count * percentile) + 99) / 100;
+    return samples[Math.max(0, (index - 1))];
+  }
+
+  public static String getSummary () {
+    synchronized (STATISTICS_LOCK) {
+      long duration = (sessionStart == 0)? 0: (getTime() - sessionStart);
+      long average = (latencyCount == 0)? 0: (latencyTotal / latencyCount);
+
+      return String.format(
+        "time:%dms frames:%d bytes:%d escaped:%d keys:%d received:%d"
+        + " backlog:%d/%d latency:%dus p99:%dus",
+        TimeUnit.MICROSECONDS.toMillis(duration),
+        framesSent, bytesSent, bytesEscaped, keyPacketsSent, packetsReceived,
+        inputBacklog, maximumBacklog, average, getPercentile(99)
+      );
+    }
+  }
+
+  public static boolean logSummary () {
+    return PersistentLog.write("remote display statistics: %s", getSummary());
+  }
+}
@@ -0,0 +1,268 @@
+package org.nbp.b2g.ui.remote;
+import org.nbp.b2g.ui.*;
+
+import java.io.IOException;
+
+import java.io.InputStream;
+import java.io.BufferedInputStream;
+
+import java.io.OutputStream;
+import java.io.BufferedOutputStream;
+
+import android.util.Log;
+
+public abstract class StreamChannel<S, T> extends Channel {
+  private final static String LOG_TAG = StreamChannel.class.getName();
+
+  protected StreamChannel () {
+    super();
+  }
+
+  protected abstract String getChannelName ();
+
+  protected abstract S newServer () throws IOException;
+  protected abstract void closeServer (S server) throws IOException;
+  protected abstract T acceptSession (S server) throws IOException;
+  protected abstract void closeSession (T session) throws IOException;
+
+  protected abstract InputStream getInputStream (T session) throws IOException;
+  protected abstract OutputStream getOutputStream (T session) throws IOException;
+
+  // called just before the server is closed in case that doesn't interrupt accept
+  protected void wakeServer () {
+  }
+
+  // only consulted when a secure connection has been requested
+  protected abstract boolean isTrustedSession (T session) throws IOException;
+
+  private final static Object STOP_LOCK = new Object();
+  private boolean isStopping;
+  private S currentServer;
+  private T currentSession;
+
+  private volatile OutputStream outputStream;
+
+  private final void closeServer () {
+    if (currentServer != null) {
+      try {
+        closeServer(currentServer);
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, (getChannelName() + " server close error: " + exception.getMessage()));
+      }
+
+      currentServer = null;
+    }
+  }
+
+  private final void closeSession () {
+    if (currentSession != null) {
+      try {
+        closeSession(currentSession);
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, (getChannelName() + " session close error: " + exception.getMessage()));
+      }
+
+      currentSession = null;
+    }
+  }
+
+  private final boolean awaitRetry () {
+    synchronized (STOP_LOCK) {
+      if (isStopping) return false;
+
+      try {
+        STOP_LOCK.wait(ApplicationParameters.REMOTE_DISPLAY_RETRY_DELAY);
+      } catch (InterruptedException exception) {
+      }
+
+      return !isStopping;
+    }
+  }
+
+  private final boolean openServer () {
+    S server;
+
+    try {
+      server = newServer();
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, (getChannelName() + " server creation error: " + exception.getMessage()));
+      return false;
+    }
+
+    synchronized (STOP_LOCK) {
+      currentServer = server;
+      if (!isStopping) return true;
+      closeServer();
+      return false;
+    }
+  }
+
+  private final boolean openSession () {
+    S server;
+
+    synchronized (STOP_LOCK) {
+      if ((server = currentServer) == null) return false;
+    }
+
+    T session;
+
+    try {
+      session = acceptSession(server);
+    } catch (IOException exception) {
+      synchronized (STOP_LOCK) {
+        if (!isStopping) {
+          Log.w(LOG_TAG, (getChannelName() + " session creation error: " + exception.getMessage()));
+          closeServer();
+        }
+      }
+
+      return false;
+    }
+
+    synchronized (STOP_LOCK) {
+      currentSession = session;
+      if (isStopping) {
+        closeSession();
+        return false;
+      }
+    }
+
+    if (ApplicationSettings.SECURE_CONNECTION) {
+      boolean trusted;
+
+      try {
+        trusted = isTrustedSession(session);
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, (getChannelName() + " session verification error: " + exception.getMessage()));
+        trusted = false;
+      }
+
+      if (!trusted) {
+        Log.w(LOG_TAG, (getChannelName() + " session rejected"));
+
+        // keep listening - serveSession ignores the closed session
+        synchronized (STOP_LOCK) {
+          closeSession();
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private final void serveSession () {
+    T session;
+
+    synchronized (STOP_LOCK) {
+      if ((session = currentSession) == null) return;
+    }
+
+    Log.d(LOG_TAG, (getChannelName() + " channel connected"));
+
+    try {
+      InputStream inputStream = new BufferedInputStream(getInputStream(session));
+      outputStream = new BufferedOutputStream(getOutputStream(session));
+      handleInput(inputStream);
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, (getChannelName() + " stream creation error: " + exception.getMessage()));
+    } finally {
+      outputStream = null;
+    }
+
+    synchronized (STOP_LOCK) {
+      closeSession();
+    }
+
+    Log.d(LOG_TAG, (getChannelName() + " channel disconnected"));
+  }
+
+  @Override
+  protected final void runChannelThread () {
+    while (true) {
+      if (openServer()) {
+        write((getChannelName() + " waiting"));
+        Log.d(LOG_TAG, (getChannelName() + " channel listening"));
+
+        while (openSession()) {
+          serveSession();
+        }
+      }
+
+      synchronized (STOP_LOCK) {
+        if (isStopping) break;
+        closeServer();
+      }
+
+      write((getChannelName() + " off"));
+      if (!awaitRetry()) break;
+    }
+  }
+
+  @Override
+  protected final void initializeChannelThread () {
+    isStopping = false;
+    currentServer = null;
+    currentSession = null;
+    outputStream = null;
+  }
+
+  @Override
+  protected final void stopChannelThread () {
+    synchronized (STOP_LOCK) {
+      isStopping = true;
+      closeSession();
+
+      if (currentServer != null) {
+        wakeServer();
+        closeServer();
+      }
+
+      STOP_LOCK.notify();
+    }
+  }
+
+  @Override
+  public final boolean send (byte b) {
+    OutputStream stream = outputStream;
+    if (stream == null) return true;
+
+    try {
+      stream.write(b & BYTE_MASK);
+      return true;
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("channel write error: " + exception.getMessage()));
+    }
+
+    return false;
+  }
+
+  @Override
+  public final boolean send (byte[] bytes, int offset, int length) {
+    OutputStream stream = outputStream;
+    if (stream == null) return true;
+
+    try {
+      stream.write(bytes, offset, length);
+      return true;
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("channel write error: " + exception.getMessage()));
+    }
+
+    return false;
+  }
+
+  @Override
+  public final boolean flush () {
+    OutputStream stream = outputStream;
+    if (stream == null) return true;
+
+    try {
+      stream.flush();
+      return true;
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("channel flush error: " + exception.getMessage()));
+    }
+
+    return false;
+  }
+}
@@ -23,6 +23,11 @@ public class TemplateChannel extends Channel {
     return false;
   }
 
+  @Override
+  public final boolean send (byte[] bytes, int offset, int length) {
+    return false;
+  }
+
   @Override
   public final boolean flush () {
     return false;
@@ -121,6 +121,11 @@ public class CalculatorActivity extends CommonActivity {
   }
 
   private final Timeout expressionSaveDelay = new Timeout(1000, "expression-save-delay") {
+    @Override
+    protected boolean isBlocking () {
+      return true;
+    }
+
     @Override
     public void run () {
       saveExpression();
@@ -15,6 +15,15 @@ public abstract class CommonParameters {
 
   public final static long SPEECH_RETRY_DELAY = 5000; // milliseconds
   public final static long SPEECH_SYNTHESIS_CONCURRENCY = 2;
+  public final static int SPEECH_CACHE_SIZE = 0X200000; // bytes of audio
+  public final static int SPEECH_CACHE_TEXT_LENGTH = 0X20; // characters
+  public final static int SPEECH_CACHE_THRESHOLD = 2; // times spoken before rendering
+  public final static int SPEECH_CACHE_CANDIDATES = 0X100;
+  public final static int SPEECH_RENDERING_LIMIT = 0X40;
+  public final static long SPEECH_RENDERING_DELAY = 2000; // milliseconds of quiet before rendering
+  public final static long SPEECH_PLAYBACK_MARGIN = 500; // milliseconds past a clip's end before it's ended anyway
 
   public final static int SCREEN_LEFT_OFFSET = 60; // DIPs
+
+  public final static int TIMEOUT_THREAD_COUNT = 2; // blocking timeouts get their own threads
 }
@@ -1,9 +1,17 @@
 package org.nbp.common;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import android.util.Log;
 
 public abstract class Timeout implements Runnable {
+  private final static String LOG_TAG = Timeout.class.getName();
+
   private final long defaultDelay;
   private final String timeoutName;
 
@@ -20,12 +28,121 @@ public abstract class Timeout implements Runnable {
     return timeoutName;
   }
 
-  private Timer timerObject = null;
+  // the scheduler's few threads are shared by every timeout, so a timeout
+  // whose body does I/O or waits for a contended lock must say so
+  protected boolean isBlocking () {
+    return false;
+  }
+
+  private static ThreadFactory newThreadFactory (final String prefix) {
+    return new ThreadFactory() {
+      private int threadNumber = 0;
+
+      @Override
+      public Thread newThread (Runnable runnable) {
+        Thread thread = new Thread(runnable, (prefix + ++threadNumber));
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  private final static ExecutorService blockingExecutor =
+    Executors.newCachedThreadPool(newThreadFactory("timeout-blocking-"));
+
+  private final static ScheduledThreadPoolExecutor timeoutScheduler = newScheduler();
+
+  private static ScheduledThreadPoolExecutor newScheduler () {
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+      CommonParameters.TIMEOUT_THREAD_COUNT, newThreadFactory("timeout-")
+    );
+
+    if (CommonUtilities.haveLollipop) {
+      // don't let restarted timeouts accumulate in the queue until they expire
+      scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    return scheduler;
+  }
+
+  private final static Object STATISTICS_LOCK = new Object();
+  private static int activeCount = 0;
+  private static long fireCount = 0;
+  private static long totalLatency = 0;
+  private static long maximumLatency = 0;
+
+  private static void recordFire (long latency) {
+    synchronized (STATISTICS_LOCK) {
+      fireCount += 1;
+      totalLatency += latency;
+      if (latency > maximumLatency) maximumLatency = latency;
+    }
+  }
+
+  private static void adjustActiveCount (int adjustment) {
+    synchronized (STATISTICS_LOCK) {
+      activeCount += adjustment;
+    }
+  }
+
+  public static int getActiveCount () {
+    synchronized (STATISTICS_LOCK) {
+      return activeCount;
+    }
+  }
+
+  public static long getFireCount () {
+    synchronized (STATISTICS_LOCK) {
+      return fireCount;
+    }
+  }
+
+  // microseconds
+  public static long getAverageLatency () {
+    synchronized (STATISTICS_LOCK) {
+      if (fireCount == 0) return 0;
+      return totalLatency / fireCount;
+    }
+  }
+
+  // microseconds
+  public static long getMaximumLatency () {
+    synchronized (STATISTICS_LOCK) {
+      return maximumLatency;
+    }
+  }
+
+  public static String getStatistics () {
+    synchronized (STATISTICS_LOCK) {
+      return String.format(
+        "active:%d fired:%d latency(us) avg:%d max:%d",
+        activeCount, fireCount,
+        ((fireCount == 0)? 0: (totalLatency / fireCount)),
+        maximumLatency
+      );
+    }
+  }
+
+  // an executor keeps a task's exception within its future, which is never
+  // examined, so it's handed on the way it would have been by a plain thread
+  private static void runTimeout (Timeout timeout) {
+    try {
+      timeout.run();
+    } catch (RuntimeException exception) {
+      Log.e(LOG_TAG, ("timeout failed: " + timeout.getName()), exception);
+
+      Thread thread = Thread.currentThread();
+      Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+      if (handler != null) handler.uncaughtException(thread, exception);
+    }
+  }
+
+  private ScheduledFuture<?> timerFuture = null;
   private int timerIdentifier = 0;
 
   public boolean isActive () {
     synchronized (this) {
-      return timerObject != null;
+      return timerFuture != null;
     }
   }
 
@@ -33,8 +150,9 @@ public abstract class Timeout implements Runnable {
     synchronized (this) {
       if (!isActive()) return false;
 
-      timerObject.cancel();
-      timerObject = null;
+      timerFuture.cancel(false);
+      timerFuture = null;
+      adjustActiveCount(-1);
       return true;
     }
   }
@@ -46,23 +164,36 @@ public abstract class Timeout implements Runnable {
 
         final Timeout timeout = this;
         final int identifier = ++timerIdentifier;
+        final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
 
-        TimerTask task = new TimerTask() {
+        final Runnable fire = new Runnable() {
           @Override
           public void run () {
             synchronized (timeout) {
               if (timeout.isActive()) {
                 if (identifier == timeout.timerIdentifier) {
+                  recordFire(TimeUnit.NANOSECONDS.toMicros(Math.max(0, (System.nanoTime() - due))));
                   timeout.cancel();
-                  timeout.run();
+                  runTimeout(timeout);
                 }
               }
             }
           }
         };
 
-        timerObject = new Timer();
-        timerObject.schedule(task, delay);
+        Runnable task = fire;
+
+        if (isBlocking()) {
+          task = new Runnable() {
+            @Override
+            public void run () {
+              blockingExecutor.execute(fire);
+            }
+          };
+        }
+
+        timerFuture = timeoutScheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        adjustActiveCount(1);
       }
     }
   }
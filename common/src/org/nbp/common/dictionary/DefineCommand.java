@@ -16,4 +16,10 @@ public class DefineCommand extends DefinitionsRequest {
   public DefineCommand (String word) {
     this(word, true);
   }
+
+  @Override
+  public final boolean loadLocalResponse () {
+    String[] arguments = getArguments();
+    return LocalDictionary.getDefinitions(getDefinitions(), arguments[1], arguments[2]);
+  }
 }
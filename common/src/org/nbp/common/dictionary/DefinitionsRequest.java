@@ -1,13 +1,15 @@
 package org.nbp.common.dictionary;
 
 public abstract class DefinitionsRequest extends CommandRequest implements DefinitionsHandler {
-  private final DefinitionList savedDefinitions = new DefinitionList();
+  // created on demand - a cached response may arrive before the subclass constructor has finished
+  private DefinitionList savedDefinitions;
 
   protected DefinitionsRequest (String... arguments) {
     super(arguments);
   }
 
-  public final DefinitionList getDefinitions () {
+  public final synchronized DefinitionList getDefinitions () {
+    if (savedDefinitions == null) savedDefinitions = new DefinitionList();
     return savedDefinitions;
   }
 
@@ -20,12 +22,25 @@ public abstract class DefinitionsRequest extends CommandRequest implements Defin
     handleDefinitions(getDefinitions());
   }
 
+  @Override
+  public final boolean loadCachedResponse () {
+    DefinitionList definitions = DictionaryCache.getDefinitions(getArguments());
+    if (definitions == null) return false;
+
+    getDefinitions().addAll(definitions);
+    return true;
+  }
+
+  private final void cacheDefinitions () {
+    DictionaryCache.putDefinitions(getDefinitions(), getArguments());
+  }
+
   protected final void saveDefinitions (DictionaryOperands operands) {
     String word = operands.next();
     String name = operands.next();
     String description = operands.next();
     String text = getTextAsString();
-    savedDefinitions.add(word, text, name, description);
+    getDefinitions().add(word, text, name, description);
   }
 
   @Override
@@ -36,8 +51,13 @@ public abstract class DefinitionsRequest extends CommandRequest implements Defin
         return true;
 
       case ResponseCodes.NO_MATCH:
+        cacheDefinitions();
         return true;
 
+      case ResponseCodes.END_RESPONSE:
+        cacheDefinitions();
+        return super.handleResponse(code, operands);
+
       case ResponseCodes.BEGIN_DEFINITION_LIST:
         return false;
 
@@ -12,7 +12,9 @@ public abstract class Dictionary {
   }
 
   public static void endSession () {
-    new QuitCommand();
+    for (DictionaryConnection connection : DictionaryConnection.getAll()) {
+      new QuitCommand(connection);
+    }
   }
 
   private static void logAudit (String audit) {
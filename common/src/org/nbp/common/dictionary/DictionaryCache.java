@@ -0,0 +1,346 @@
+package org.nbp.common.dictionary;
+
+import org.nbp.common.CommonContext;
+import org.nbp.common.CachingMap;
+
+import java.util.Map;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+
+import android.util.Log;
+import android.content.Context;
+
+public abstract class DictionaryCache {
+  private final static String LOG_TAG = DictionaryCache.class.getName();
+
+  private DictionaryCache () {
+  }
+
+  private final static int CACHE_FORMAT = 1;
+  private final static String FILE_EXTENSION = ".dict";
+
+  private final static byte TYPE_DEFINITIONS = 1;
+  private final static byte TYPE_MATCHES = 2;
+
+  private final static class CacheEntry {
+    public final long time;
+    public final byte type;
+    public final Object result;
+
+    public CacheEntry (long time, byte type, Object result) {
+      this.time = time;
+      this.type = type;
+      this.result = result;
+    }
+  }
+
+  private final static Object CACHE_LOCK = new Object();
+
+  private final static Map<String, CacheEntry> memoryCache =
+               new CachingMap<String, CacheEntry>(DictionaryParameters.CACHE_MEMORY_ENTRIES);
+
+  private static long storeSize = -1;
+
+  private static String makeKey (String... arguments) {
+    StringBuilder key = new StringBuilder();
+
+    for (String argument : arguments) {
+      if (key.length() > 0) key.append(' ');
+      key.append(DictionaryOperands.quote(argument));
+    }
+
+    return key.toString();
+  }
+
+  private static boolean hasExpired (long time, long now) {
+    return (now - time) > DictionaryParameters.CACHE_TIME_TO_LIVE;
+  }
+
+  private static File getDirectory () {
+    Context context = CommonContext.getContext();
+    if (context == null) return null;
+    return context.getDir(DictionaryCache.class.getSimpleName(), Context.MODE_PRIVATE);
+  }
+
+  private static File getFile (File directory, String key) {
+    return new File(directory, (String.format("%08x", key.hashCode()) + FILE_EXTENSION));
+  }
+
+  private static File[] listFiles (File directory) {
+    File[] files = directory.listFiles();
+    if (files == null) return new File[0];
+    return files;
+  }
+
+  private static long getStoreSize (File directory) {
+    if (storeSize < 0) {
+      storeSize = 0;
+
+      for (File file : listFiles(directory)) {
+        storeSize += file.length();
+      }
+    }
+
+    return storeSize;
+  }
+
+  private static void deleteFile (File file) {
+    long length = file.length();
+
+    if (file.delete()) {
+      if (storeSize >= 0) storeSize -= length;
+    }
+  }
+
+  // the least recently used files are removed first
+  private static void trimStore (File directory) {
+    long limit = DictionaryParameters.CACHE_FILE_SIZE;
+    if (getStoreSize(directory) <= limit) return;
+
+    File[] files = listFiles(directory);
+
+    Arrays.sort(files,
+      new Comparator<File>() {
+        @Override
+        public int compare (File file1, File file2) {
+          long time1 = file1.lastModified();
+          long time2 = file2.lastModified();
+          return (time1 < time2)? -1: (time1 > time2)? 1: 0;
+        }
+      }
+    );
+
+    for (File file : files) {
+      if (storeSize <= limit) break;
+      deleteFile(file);
+    }
+  }
+
+  private static void writeString (DataOutputStream output, String string) throws IOException {
+    byte[] bytes = string.getBytes(DictionaryParameters.CHARACTER_ENCODING);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString (DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, DictionaryParameters.CHARACTER_ENCODING);
+  }
+
+  private static void writeEntry (File file, String key, CacheEntry entry) throws IOException {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+    try {
+      output.writeInt(CACHE_FORMAT);
+      writeString(output, key);
+      output.writeLong(entry.time);
+      output.writeByte(entry.type);
+
+      switch (entry.type) {
+        case TYPE_DEFINITIONS: {
+          DefinitionList definitions = (DefinitionList)entry.result;
+          output.writeInt(definitions.size());
+
+          for (DefinitionEntry definition : definitions) {
+            writeString(output, definition.getMatchedWord());
+            writeString(output, definition.getDefinitionText());
+            writeString(output, definition.getDatabaseName());
+            writeString(output, definition.getDatabaseDescription());
+          }
+
+          break;
+        }
+
+        case TYPE_MATCHES: {
+          MatchList matches = (MatchList)entry.result;
+          output.writeInt(matches.size());
+
+          for (MatchEntry match : matches) {
+            writeString(output, match.getMatchedWord());
+            writeString(output, match.getDatabaseName());
+          }
+
+          break;
+        }
+      }
+    } finally {
+      output.close();
+    }
+  }
+
+  private static CacheEntry readEntry (File file, String key) throws IOException {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+    try {
+      if (input.readInt() != CACHE_FORMAT) return null;
+      if (!readString(input).equals(key)) return null;
+
+      long time = input.readLong();
+      byte type = input.readByte();
+      int count = input.readInt();
+
+      switch (type) {
+        case TYPE_DEFINITIONS: {
+          DefinitionList definitions = new DefinitionList();
+
+          while (count-- > 0) {
+            String word = readString(input);
+            String text = readString(input);
+            String name = readString(input);
+            String description = readString(input);
+            definitions.add(word, text, name, description);
+          }
+
+          return new CacheEntry(time, type, definitions);
+        }
+
+        case TYPE_MATCHES: {
+          MatchList matches = new MatchList();
+
+          while (count-- > 0) {
+            String word = readString(input);
+            String name = readString(input);
+            matches.add(word, name);
+          }
+
+          return new CacheEntry(time, type, matches);
+        }
+
+        default:
+          return null;
+      }
+    } finally {
+      input.close();
+    }
+  }
+
+  private static CacheEntry loadEntry (String key, long now) {
+    File directory = getDirectory();
+    if (directory == null) return null;
+
+    File file = getFile(directory, key);
+    if (!file.exists()) return null;
+
+    try {
+      CacheEntry entry = readEntry(file, key);
+
+      if (entry != null) {
+        if (!hasExpired(entry.time, now)) {
+          file.setLastModified(now);
+          return entry;
+        }
+
+        deleteFile(file);
+      }
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("dictionary cache entry not loaded: " + exception.getMessage()));
+      deleteFile(file);
+    }
+
+    return null;
+  }
+
+  private static void saveEntry (String key, CacheEntry entry) {
+    File directory = getDirectory();
+    if (directory == null) return;
+
+    File file = getFile(directory, key);
+    File newFile = new File(file.getPath() + ".new");
+
+    try {
+      writeEntry(newFile, key, entry);
+      getStoreSize(directory);
+      long length = newFile.length();
+      deleteFile(file);
+
+      if (newFile.renameTo(file)) {
+        storeSize += length;
+        trimStore(directory);
+      } else {
+        Log.w(LOG_TAG, ("dictionary cache entry not renamed: " + file.getAbsolutePath()));
+      }
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("dictionary cache entry not saved: " + exception.getMessage()));
+    }
+
+    newFile.delete();
+  }
+
+  private static Object get (byte type, String... arguments) {
+    String key = makeKey(arguments);
+    long now = System.currentTimeMillis();
+
+    synchronized (CACHE_LOCK) {
+      CacheEntry entry = memoryCache.get(key);
+
+      if (entry != null) {
+        if (hasExpired(entry.time, now)) {
+          memoryCache.remove(key);
+          entry = null;
+        }
+      } else if ((entry = loadEntry(key, now)) != null) {
+        memoryCache.put(key, entry);
+      }
+
+      if (entry == null) return null;
+      if (entry.type != type) return null;
+      return entry.result;
+    }
+  }
+
+  private static void put (byte type, Object result, String... arguments) {
+    String key = makeKey(arguments);
+    CacheEntry entry = new CacheEntry(System.currentTimeMillis(), type, result);
+
+    synchronized (CACHE_LOCK) {
+      memoryCache.put(key, entry);
+      saveEntry(key, entry);
+    }
+  }
+
+  public static DefinitionList getDefinitions (String... arguments) {
+    return (DefinitionList)get(TYPE_DEFINITIONS, arguments);
+  }
+
+  public static void putDefinitions (DefinitionList definitions, String... arguments) {
+    DefinitionList copy = new DefinitionList();
+    copy.addAll(definitions);
+    put(TYPE_DEFINITIONS, copy, arguments);
+  }
+
+  public static MatchList getMatches (String... arguments) {
+    return (MatchList)get(TYPE_MATCHES, arguments);
+  }
+
+  public static void putMatches (MatchList matches, String... arguments) {
+    MatchList copy = new MatchList();
+    copy.addAll(matches);
+    put(TYPE_MATCHES, copy, arguments);
+  }
+
+  public static void clear () {
+    synchronized (CACHE_LOCK) {
+      memoryCache.clear();
+
+      File directory = getDirectory();
+      if (directory == null) return;
+
+      for (File file : listFiles(directory)) {
+        file.delete();
+      }
+
+      storeSize = 0;
+    }
+  }
+}
@@ -18,6 +18,9 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.io.OutputStreamWriter;
 
+import java.util.List;
+import java.util.ArrayList;
+
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -47,13 +50,49 @@ public class DictionaryConnection implements Closeable {
   }
 
   private final static Object GET_LOCK = new Object();
-  private static DictionaryConnection currentConnection = null;
 
+  private final static DictionaryConnection[] connectionPool =
+               new DictionaryConnection[DictionaryParameters.CONNECTION_POOL_SIZE];
+
+  private final int getLoad () {
+    return requestQueue.size() + responseQueue.size();
+  }
+
+  // an idle connection is reused - another one is only opened when all of them are busy
   public static DictionaryConnection get () {
     synchronized (GET_LOCK) {
-      if (currentConnection == null) currentConnection = new DictionaryConnection();
-      return currentConnection;
+      DictionaryConnection connection = null;
+      int free = -1;
+
+      for (int index=0; index<connectionPool.length; index+=1) {
+        DictionaryConnection candidate = connectionPool[index];
+
+        if (candidate == null) {
+          if (free < 0) free = index;
+        } else if ((connection == null) || (candidate.getLoad() < connection.getLoad())) {
+          connection = candidate;
+        }
+      }
+
+      if ((connection == null) || ((connection.getLoad() > 0) && (free >= 0))) {
+        connection = new DictionaryConnection();
+        connectionPool[free] = connection;
+      }
+
+      return connection;
+    }
+  }
+
+  public static List<DictionaryConnection> getAll () {
+    List<DictionaryConnection> connections = new ArrayList<DictionaryConnection>();
+
+    synchronized (GET_LOCK) {
+      for (DictionaryConnection connection : connectionPool) {
+        if (connection != null) connections.add(connection);
+      }
     }
+
+    return connections;
   }
 
   private Socket clientSocket = null;
@@ -146,7 +185,9 @@ public class DictionaryConnection implements Closeable {
   @Override
   public void close () {
     synchronized (GET_LOCK) {
-      if (this == currentConnection) currentConnection = null;
+      for (int index=0; index<connectionPool.length; index+=1) {
+        if (connectionPool[index] == this) connectionPool[index] = null;
+      }
     }
 
     synchronized (this) {
@@ -327,78 +368,112 @@ public class DictionaryConnection implements Closeable {
     }
   }
 
-  private final void runRequestLoop () {
+  private final void appendCommand (StringBuilder commands, String[] arguments) {
+    if (arguments.length == 0) {
+      throw new OperandException("missing command");
+    }
+
     StringBuilder command = new StringBuilder();
 
-    while (true) {
-      RequestEntry request;
+    for (String argument : arguments) {
+      if (command.length() > 0) command.append(' ');
+      command.append(DictionaryOperands.quote(argument));
+    }
 
-      try {
-        request = requestQueue.take();
-        if (request == null) break;
-      } catch (InterruptedException exception) {
-        logEvent("request thread interrupted");
-        break;
+    Log.d(LOG_TAG, ("command: " + command));
+    command.append("\r\n");
+
+    {
+      int maximum = DictionaryParameters.MAXIMUM_LENGTH;
+      int length = command.length();
+
+      if (length > maximum) {
+        throw new OperandException(
+          String.format(
+            "command line too long: %d > %d",
+            length, maximum
+          )
+        );
       }
+    }
 
-      RequestHandler handler = request.handler;
-      boolean isFinal = handler.isFinal();
+    commands.append(command);
+  }
+
+  private final boolean writeCommands (StringBuilder commands, List<RequestHandler> handlers) {
+    synchronized (this) {
+      Writer writer = getWriter();
+      if (writer == null) return false;
 
       try {
-        try {
-          command.setLength(0);
-          String[] arguments = request.arguments;
+        writer.write(commands.toString());
+        writer.flush();
+      } catch (IOException exception) {
+        Log.e(LOG_TAG, ("socket write error: " + exception.getMessage()));
+        close();
+        return false;
+      }
 
-          if (arguments.length == 0) {
-            throw new OperandException("missing command");
-          }
+      responseQueue.addAll(handlers);
+      handlers.clear();
+      startResponseThread();
+      return true;
+    }
+  }
 
-          for (String argument : arguments) {
-            if (command.length() > 0) command.append(' ');
-            command.append(DictionaryOperands.quote(argument));
-          }
+  private final void runRequestLoop () {
+    StringBuilder commands = new StringBuilder();
+    List<RequestHandler> handlers = new ArrayList<RequestHandler>();
+    boolean isFinal = false;
 
-          Log.d(LOG_TAG, ("command: " + command));
-          command.append("\r\n");
+    try {
+      while (!isFinal) {
+        RequestEntry request;
 
-          {
-            int maximum = DictionaryParameters.MAXIMUM_LENGTH;
-            int length = command.length();
+        try {
+          request = requestQueue.take();
+          if (request == null) break;
+        } catch (InterruptedException exception) {
+          logEvent("request thread interrupted");
+          break;
+        }
 
-            if (length > maximum) {
-              throw new OperandException(
-                String.format(
-                  "command line too long: %d > %d",
-                  length, maximum
-                )
-              );
-            }
-          }
+        commands.setLength(0);
 
-          synchronized (this) {
-            Writer writer = getWriter();
-            if (writer == null) break;
+        // requests that are already waiting are pipelined into the same write
+        while (true) {
+          RequestHandler handler = request.handler;
+          isFinal = handler.isFinal();
 
-            try {
-              writer.write(command.toString());
-              writer.flush();
-            } catch (IOException exception) {
-              Log.e(LOG_TAG, ("socket write error: " + exception.getMessage()));
-              close();
-              break;
+          try {
+            // local and cached responses are delivered without touching the socket
+            if (handler.loadLocalResponse()) {
+              Log.d(LOG_TAG, "local response");
+            } else if (handler.loadCachedResponse()) {
+              Log.d(LOG_TAG, "cached response");
+            } else {
+              appendCommand(commands, request.arguments);
+              handlers.add(handler);
+              handler = null;
             }
-
-            responseQueue.offer(handler);
-            handler = null;
-            startResponseThread();
+          } catch (OperandException exception) {
+            Log.w(LOG_TAG, exception.getMessage());
+          } finally {
+            if (handler != null) handler.setFinished();
           }
-        } catch (OperandException exception) {
-          Log.w(LOG_TAG, exception.getMessage());
+
+          if (isFinal) break;
+          if (handlers.size() == DictionaryParameters.PIPELINE_LIMIT) break;
+          if ((request = requestQueue.poll()) == null) break;
         }
 
-        if (isFinal) break;
-      } finally {
-        if (handler != null) handler.setFinished();
+        if (!handlers.isEmpty()) {
+          if (!writeCommands(commands, handlers)) break;
+        }
+      }
+    } finally {
+      for (RequestHandler handler : handlers) {
+        handler.setFinished();
       }
     }
   }
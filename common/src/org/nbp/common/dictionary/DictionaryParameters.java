@@ -8,4 +8,17 @@ public abstract class DictionaryParameters {
   public final static int SERVER_PORT = 2628; // dict
   public final static String CHARACTER_ENCODING = "UTF8";
   public final static int MAXIMUM_LENGTH = 0X400;
+  public final static int CONNECTION_POOL_SIZE = 2;
+  public final static int PIPELINE_LIMIT = 8; // commands per write
+
+  public final static int CACHE_MEMORY_ENTRIES = 0X40;
+  public final static long CACHE_FILE_SIZE = 0X200000; // bytes
+  public final static long CACHE_TIME_TO_LIVE = 30L * 24L * 60L * 60L * 1000L; // milliseconds
+
+  public final static String LOCAL_DIRECTORY_NAME = "dictd";
+  public final static int LOCAL_CHUNK_CACHE_SIZE = 8;
+
+  public final static String SPELLING_WORDS_FILE = "words.txt";
+  public final static int SPELLING_MAXIMUM_DISTANCE = 1; // only single deletions are indexed
+  public final static int SPELLING_SUGGESTION_LIMIT = 8;
 }
@@ -2,24 +2,61 @@ package org.nbp.common.dictionary;
 
 import android.util.Log;
 
+import java.util.concurrent.TimeUnit;
+
 public abstract class DictionaryRequest implements RequestHandler {
   private final static String LOG_TAG = DictionaryRequest.class.getName();
 
-  private final DictionaryConnection dictionaryConnection = DictionaryConnection.get();
+  private final DictionaryConnection dictionaryConnection;
+  private final String[] requestArguments;
   private boolean isFinished = false;
 
+  private final long startTime = System.nanoTime();
+  private long requestLatency = -1;
+
   protected final DictionaryConnection getConnection () {
     return dictionaryConnection;
   }
 
+  protected final String[] getArguments () {
+    return requestArguments;
+  }
+
+  protected DictionaryRequest (DictionaryConnection connection, String... arguments) {
+    dictionaryConnection = connection;
+    requestArguments = arguments;
+    connection.enqueueRequest(this, arguments);
+  }
+
   protected DictionaryRequest (String... arguments) {
-    getConnection().enqueueRequest(this, arguments);
+    this(DictionaryConnection.get(), arguments);
   }
 
   public final boolean hasFinished () {
     return isFinished;
   }
 
+  // milliseconds from construction until finished, or -1 if not finished yet
+  public final long getLatency () {
+    return requestLatency;
+  }
+
+  private final void logLatency () {
+    StringBuilder request = new StringBuilder();
+
+    for (String argument : requestArguments) {
+      if (request.length() > 0) request.append(' ');
+      request.append(argument);
+    }
+
+    Log.d(LOG_TAG,
+      String.format(
+        "request finished: connection %d: %dms: %s",
+        getConnection().getIdentifier(), requestLatency, request
+      )
+    );
+  }
+
   protected void handleResult () {
   }
 
@@ -31,6 +68,8 @@ public abstract class DictionaryRequest implements RequestHandler {
       }
 
       isFinished = true;
+      requestLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      logLatency();
       notify();
       handleResult();
     }
@@ -41,6 +80,16 @@ public abstract class DictionaryRequest implements RequestHandler {
     return false;
   }
 
+  @Override
+  public boolean loadLocalResponse () {
+    return false;
+  }
+
+  @Override
+  public boolean loadCachedResponse () {
+    return false;
+  }
+
   protected static void logProblem (String problem) {
     Log.w(LOG_TAG, problem);
   }
@@ -1,6 +1,10 @@
 package org.nbp.common.dictionary;
 
 public abstract class FinalRequest extends DictionaryRequest {
+  protected FinalRequest (DictionaryConnection connection, String... operands) {
+    super(connection, operands);
+  }
+
   protected FinalRequest (String... operands) {
     super(operands);
   }
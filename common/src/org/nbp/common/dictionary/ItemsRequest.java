@@ -5,13 +5,14 @@ import android.util.Log;
 public abstract class ItemsRequest extends CommandRequest implements ItemsHandler {
   private final static String LOG_TAG = ItemsRequest.class.getName();
 
-  private final ItemList savedItems = new ItemList();
+  private ItemList savedItems;
 
   protected ItemsRequest (String... arguments) {
     super(arguments);
   }
 
-  public final ItemList getItems () {
+  public final synchronized ItemList getItems () {
+    if (savedItems == null) savedItems = new ItemList();
     return savedItems;
   }
 
@@ -35,7 +36,7 @@ public abstract class ItemsRequest extends CommandRequest implements ItemsHandle
         if (parameters.isEmpty()) throw new OperandException("missing item Description");
         String description = parameters.removeFirst();
 
-        savedItems.add(name, description);
+        getItems().add(name, description);
       } catch (OperandException exception) {
         Log.w(LOG_TAG, exception.getMessage());
       }
@@ -0,0 +1,186 @@
+package org.nbp.common.dictionary;
+
+import org.nbp.common.CachingMap;
+
+import java.util.Map;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.IOException;
+
+import java.util.zip.Inflater;
+import java.util.zip.DataFormatException;
+
+// a dictd data file - either plain text or dictzip (gzip with a random access chunk table)
+public class LocalData implements Closeable {
+  private final RandomAccessFile dataFile;
+
+  private int chunkLength = 0;
+  private long[] chunkOffsets = null;
+
+  private final Map<Integer, byte[]> chunkCache =
+        new CachingMap<Integer, byte[]>(DictionaryParameters.LOCAL_CHUNK_CACHE_SIZE);
+
+  private final Inflater inflater = new Inflater(true);
+
+  private final static int GZIP_MAGIC1 = 0X1F;
+  private final static int GZIP_MAGIC2 = 0X8B;
+  private final static int GZIP_DEFLATE = 8;
+
+  private final static int GZIP_FLAG_HCRC    = 0X02;
+  private final static int GZIP_FLAG_EXTRA   = 0X04;
+  private final static int GZIP_FLAG_NAME    = 0X08;
+  private final static int GZIP_FLAG_COMMENT = 0X10;
+
+  private final int readUnsignedShort () throws IOException {
+    int low = dataFile.readUnsignedByte();
+    int high = dataFile.readUnsignedByte();
+    return (high << 8) | low;
+  }
+
+  private final void skipString () throws IOException {
+    while (dataFile.readUnsignedByte() != 0);
+  }
+
+  private final void readChunkTable (int length) throws IOException {
+    readUnsignedShort(); // version
+    chunkLength = readUnsignedShort();
+    int count = readUnsignedShort();
+
+    if ((length - 6) != (count * 2)) {
+      throw new IOException("malformed dictzip chunk table");
+    }
+
+    chunkOffsets = new long[count + 1];
+
+    for (int index=0; index<count; index+=1) {
+      chunkOffsets[index + 1] = chunkOffsets[index] + readUnsignedShort();
+    }
+  }
+
+  private final void readHeader (File file) throws IOException {
+    if (dataFile.readUnsignedByte() != GZIP_MAGIC1) return;
+    if (dataFile.readUnsignedByte() != GZIP_MAGIC2) return;
+
+    if (dataFile.readUnsignedByte() != GZIP_DEFLATE) {
+      throw new IOException("unsupported compression method: " + file.getAbsolutePath());
+    }
+
+    int flags = dataFile.readUnsignedByte();
+    dataFile.skipBytes(6); // modification time, extra flags, operating system
+
+    if ((flags & GZIP_FLAG_EXTRA) != 0) {
+      long end = readUnsignedShort();
+      end += dataFile.getFilePointer();
+
+      while (dataFile.getFilePointer() < end) {
+        int id1 = dataFile.readUnsignedByte();
+        int id2 = dataFile.readUnsignedByte();
+        int length = readUnsignedShort();
+
+        if ((id1 == 'R') && (id2 == 'A')) {
+          readChunkTable(length);
+        } else {
+          dataFile.skipBytes(length);
+        }
+      }
+    }
+
+    if ((flags & GZIP_FLAG_NAME) != 0) skipString();
+    if ((flags & GZIP_FLAG_COMMENT) != 0) skipString();
+    if ((flags & GZIP_FLAG_HCRC) != 0) dataFile.skipBytes(2);
+
+    if (chunkOffsets == null) {
+      throw new IOException("not a dictzip file: " + file.getAbsolutePath());
+    }
+
+    long start = dataFile.getFilePointer();
+
+    for (int index=0; index<chunkOffsets.length; index+=1) {
+      chunkOffsets[index] += start;
+    }
+  }
+
+  public LocalData (File file) throws IOException {
+    dataFile = new RandomAccessFile(file, "r");
+
+    try {
+      readHeader(file);
+    } catch (IOException exception) {
+      dataFile.close();
+      throw exception;
+    }
+  }
+
+  @Override
+  public void close () throws IOException {
+    inflater.end();
+    dataFile.close();
+  }
+
+  private final byte[] getChunk (int index) throws IOException {
+    byte[] chunk = chunkCache.get(index);
+    if (chunk != null) return chunk;
+
+    long offset = chunkOffsets[index];
+    int length = (int)(chunkOffsets[index + 1] - offset);
+
+    // the inflater needs an extra byte when there's no zlib wrapper
+    byte[] input = new byte[length + 1];
+    dataFile.seek(offset);
+    dataFile.readFully(input, 0, length);
+
+    byte[] output = new byte[chunkLength];
+    int count;
+
+    inflater.reset();
+    inflater.setInput(input);
+
+    try {
+      count = inflater.inflate(output);
+    } catch (DataFormatException exception) {
+      throw new IOException("dictzip chunk not inflated: " + exception.getMessage());
+    }
+
+    if (count < chunkLength) {
+      byte[] bytes = new byte[count];
+      System.arraycopy(output, 0, bytes, 0, count);
+      output = bytes;
+    }
+
+    chunkCache.put(index, output);
+    return output;
+  }
+
+  public final synchronized byte[] read (long offset, int length) throws IOException {
+    byte[] bytes = new byte[length];
+
+    if (chunkOffsets == null) {
+      dataFile.seek(offset);
+      dataFile.readFully(bytes);
+      return bytes;
+    }
+
+    int count = 0;
+
+    while (count < length) {
+      long position = offset + count;
+      int index = (int)(position / chunkLength);
+
+      if (index >= (chunkOffsets.length - 1)) {
+        throw new IOException("read beyond end of dictzip data");
+      }
+
+      byte[] chunk = getChunk(index);
+      int from = (int)(position % chunkLength);
+      if (from >= chunk.length) throw new IOException("short dictzip chunk");
+
+      int amount = Math.min((length - count), (chunk.length - from));
+      System.arraycopy(chunk, from, bytes, count, amount);
+      count += amount;
+    }
+
+    return bytes;
+  }
+}
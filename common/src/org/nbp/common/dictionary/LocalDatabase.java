@@ -0,0 +1,169 @@
+package org.nbp.common.dictionary;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.LinkedHashSet;
+
+import java.io.File;
+import java.io.IOException;
+
+public class LocalDatabase {
+  private final String databaseName;
+  private final LocalIndex databaseIndex;
+  private final LocalData databaseData;
+  private final String databaseDescription;
+
+  public final String getName () {
+    return databaseName;
+  }
+
+  public final String getDescription () {
+    return databaseDescription;
+  }
+
+  private final String getText (LocalIndex.Entry entry) throws IOException {
+    byte[] bytes = databaseData.read(entry.getOffset(), entry.getLength());
+    return new String(bytes, DictionaryParameters.CHARACTER_ENCODING);
+  }
+
+  private final List<LocalIndex.Entry> findEntries (String word) throws IOException {
+    final List<LocalIndex.Entry> entries = new ArrayList<LocalIndex.Entry>();
+    final String key = databaseIndex.makeKey(word);
+
+    databaseIndex.scan(databaseIndex.find(key),
+      new LocalIndex.EntryHandler() {
+        @Override
+        public boolean handleEntry (LocalIndex.Entry entry, String entryKey) {
+          if (!entryKey.equals(key)) return false;
+          entries.add(entry);
+          return true;
+        }
+      }
+    );
+
+    return entries;
+  }
+
+  // the short description is the last line of the 00-database-short entry
+  private final String findDescription () throws IOException {
+    List<LocalIndex.Entry> entries = findEntries("00-database-short");
+    if (entries.isEmpty()) return databaseName;
+
+    String[] lines = getText(entries.get(0)).trim().split("\n");
+    return lines[lines.length - 1].trim();
+  }
+
+  // the 00-database-* entries describe the database and aren't words
+  private static boolean isInformational (String headword) {
+    return headword.startsWith("00-database-") || headword.startsWith("00database");
+  }
+
+  public LocalDatabase (String name, File index, File data) throws IOException {
+    databaseName = name;
+    databaseIndex = new LocalIndex(index);
+    databaseData = new LocalData(data);
+    databaseDescription = findDescription();
+  }
+
+  public final void close () throws IOException {
+    databaseData.close();
+  }
+
+  public final boolean define (DefinitionList definitions, String word) throws IOException {
+    boolean found = false;
+
+    for (LocalIndex.Entry entry : findEntries(word)) {
+      definitions.add(entry.getHeadword(), getText(entry), databaseName, databaseDescription);
+      found = true;
+    }
+
+    return found;
+  }
+
+  private static boolean isWithinOneEdit (String key1, String key2) {
+    int length1 = key1.length();
+    int length2 = key2.length();
+
+    if (length1 > length2) {
+      return isWithinOneEdit(key2, key1);
+    }
+
+    if ((length2 - length1) > 1) return false;
+    int index = 0;
+
+    while ((index < length1) && (key1.charAt(index) == key2.charAt(index))) {
+      index += 1;
+    }
+
+    if (index == length1) return true;
+
+    if (length1 == length2) {
+      return key1.regionMatches((index + 1), key2, (index + 1), (length1 - index - 1));
+    }
+
+    return key1.regionMatches(index, key2, (index + 1), (length1 - index));
+  }
+
+  public static boolean canMatch (DictionaryStrategy strategy) {
+    switch (strategy) {
+      case EXACT:
+      case PREFIX:
+      case APPROXIMATE:
+      case LEVENSHTEIN1:
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  public final boolean match (MatchList matches, String word, final DictionaryStrategy strategy) throws IOException {
+    final Set<String> headwords = new LinkedHashSet<String>();
+    final String key = databaseIndex.makeKey(word);
+    int start;
+
+    switch (strategy) {
+      case EXACT:
+      case PREFIX:
+        start = databaseIndex.find(key);
+        break;
+
+      default:
+        start = 0;
+        break;
+    }
+
+    databaseIndex.scan(start,
+      new LocalIndex.EntryHandler() {
+        @Override
+        public boolean handleEntry (LocalIndex.Entry entry, String entryKey) {
+          if (isInformational(entry.getHeadword())) return true;
+
+          switch (strategy) {
+            case EXACT:
+              if (!entryKey.equals(key)) return false;
+              break;
+
+            case PREFIX:
+              if (!entryKey.startsWith(key)) return false;
+              break;
+
+            default:
+              if (!isWithinOneEdit(key, entryKey)) return true;
+              break;
+          }
+
+          headwords.add(entry.getHeadword());
+          return true;
+        }
+      }
+    );
+
+    for (String headword : headwords) {
+      matches.add(headword, databaseName);
+    }
+
+    return !headwords.isEmpty();
+  }
+}
@@ -0,0 +1,173 @@
+package org.nbp.common.dictionary;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import java.io.File;
+import java.io.IOException;
+
+import android.util.Log;
+import android.os.Environment;
+
+public abstract class LocalDictionary {
+  private final static String LOG_TAG = LocalDictionary.class.getName();
+
+  private LocalDictionary () {
+  }
+
+  private final static String INDEX_EXTENSION = ".index";
+  private final static String[] DATA_EXTENSIONS = new String[] {".dict.dz", ".dict"};
+
+  private final static Object DATABASES_LOCK = new Object();
+  private final static Map<String, LocalDatabase> localDatabases = new TreeMap<String, LocalDatabase>();
+  private static long directoryTime = -1;
+
+  public static File getDirectory () {
+    return new File(
+      Environment.getExternalStorageDirectory(),
+      DictionaryParameters.LOCAL_DIRECTORY_NAME
+    );
+  }
+
+  private static void closeDatabases () {
+    for (LocalDatabase database : localDatabases.values()) {
+      try {
+        database.close();
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, ("local database close error: " + exception.getMessage()));
+      }
+    }
+
+    localDatabases.clear();
+  }
+
+  private static void openDatabase (File directory, String name) {
+    File index = new File(directory, (name + INDEX_EXTENSION));
+
+    for (String extension : DATA_EXTENSIONS) {
+      File data = new File(directory, (name + extension));
+      if (!data.isFile()) continue;
+
+      try {
+        localDatabases.put(name, new LocalDatabase(name, index, data));
+        Log.d(LOG_TAG, ("local database opened: " + name));
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, ("local database not opened: " + name + ": " + exception.getMessage()));
+      }
+
+      return;
+    }
+
+    Log.w(LOG_TAG, ("local database data not found: " + name));
+  }
+
+  // the databases are reopened whenever the directory changes
+  private static boolean haveDatabases () {
+    File directory = getDirectory();
+    long time = directory.lastModified();
+
+    if (time != directoryTime) {
+      closeDatabases();
+      directoryTime = time;
+
+      File[] files = directory.listFiles();
+
+      if (files != null) {
+        for (File file : files) {
+          String name = file.getName();
+          if (!name.endsWith(INDEX_EXTENSION)) continue;
+          if (!file.isFile()) continue;
+
+          openDatabase(directory, name.substring(0, (name.length() - INDEX_EXTENSION.length())));
+        }
+      }
+    }
+
+    return !localDatabases.isEmpty();
+  }
+
+  private static boolean isAllDatabases (String database) {
+    return database.equals(DictionaryDatabase.ALL.getName())
+        || database.equals(DictionaryDatabase.FIRST.getName());
+  }
+
+  private static DictionaryStrategy getStrategy (String name) {
+    for (DictionaryStrategy strategy : DictionaryStrategy.values()) {
+      if (strategy.getName().equals(name)) return strategy;
+    }
+
+    return null;
+  }
+
+  public static boolean getDefinitions (DefinitionList definitions, String database, String word) {
+    synchronized (DATABASES_LOCK) {
+      if (!haveDatabases()) return false;
+
+      try {
+        if (!isAllDatabases(database)) {
+          LocalDatabase local = localDatabases.get(database);
+          if (local == null) return false;
+
+          local.define(definitions, word);
+          return true;
+        }
+
+        boolean first = database.equals(DictionaryDatabase.FIRST.getName());
+
+        for (LocalDatabase local : localDatabases.values()) {
+          if (local.define(definitions, word) && first) break;
+        }
+
+        return true;
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, ("local definition error: " + exception.getMessage()));
+        definitions.clear();
+        return false;
+      }
+    }
+  }
+
+  public static boolean getMatches (MatchList matches, String database, String strategy, String word) {
+    DictionaryStrategy localStrategy = getStrategy(strategy);
+    if (localStrategy == null) return false;
+    if (!LocalDatabase.canMatch(localStrategy)) return false;
+
+    synchronized (DATABASES_LOCK) {
+      if (!haveDatabases()) return false;
+
+      try {
+        if (!isAllDatabases(database)) {
+          LocalDatabase local = localDatabases.get(database);
+          if (local == null) return false;
+
+          local.match(matches, word, localStrategy);
+          return true;
+        }
+
+        boolean first = database.equals(DictionaryDatabase.FIRST.getName());
+
+        for (LocalDatabase local : localDatabases.values()) {
+          if (local.match(matches, word, localStrategy) && first) break;
+        }
+
+        return true;
+      } catch (IOException exception) {
+        Log.w(LOG_TAG, ("local match error: " + exception.getMessage()));
+        matches.clear();
+        return false;
+      }
+    }
+  }
+
+  public static boolean getDatabases (ItemList items) {
+    synchronized (DATABASES_LOCK) {
+      if (!haveDatabases()) return false;
+
+      for (LocalDatabase local : localDatabases.values()) {
+        items.add(local.getName(), local.getDescription());
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package org.nbp.common.dictionary;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class LocalIndex {
+  private final MappedByteBuffer indexBuffer;
+  private final int indexSize;
+  private boolean allCharacters = false;
+
+  public final static class Entry {
+    private final String headword;
+    private final long offset;
+    private final int length;
+
+    public final String getHeadword () {
+      return headword;
+    }
+
+    public final long getOffset () {
+      return offset;
+    }
+
+    public final int getLength () {
+      return length;
+    }
+
+    public Entry (String headword, long offset, int length) {
+      this.headword = headword;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  public interface EntryHandler {
+    // returns false to stop the scan
+    public boolean handleEntry (Entry entry, String key);
+  }
+
+  public LocalIndex (File file) throws IOException {
+    FileInputStream stream = new FileInputStream(file);
+
+    try {
+      FileChannel channel = stream.getChannel();
+      long size = channel.size();
+
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("index too large: " + file.getAbsolutePath());
+      }
+
+      indexSize = (int)size;
+      indexBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    } finally {
+      stream.close();
+    }
+
+    scan(0,
+      new EntryHandler() {
+        @Override
+        public boolean handleEntry (Entry entry, String key) {
+          String headword = entry.getHeadword();
+          if (!headword.startsWith("00")) return false;
+          if (headword.equals("00-database-allchars")) allCharacters = true;
+          if (headword.equals("00databaseallchars")) allCharacters = true;
+          return true;
+        }
+      }
+    );
+  }
+
+  // dictfmt sorts case-insensitively on letters, digits, and spaces unless --allchars was specified
+  public final String makeKey (String word) {
+    int length = word.length();
+    StringBuilder key = new StringBuilder(length);
+
+    for (int index=0; index<length; index+=1) {
+      char character = word.charAt(index);
+
+      if (!allCharacters) {
+        if (!(Character.isLetterOrDigit(character) || Character.isSpaceChar(character))) {
+          continue;
+        }
+      }
+
+      key.append(Character.toLowerCase(character));
+    }
+
+    return key.toString();
+  }
+
+  private final static String BASE64_DIGITS =
+    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+  private static long decodeNumber (String string) throws IOException {
+    long value = 0;
+    int length = string.length();
+
+    for (int index=0; index<length; index+=1) {
+      int digit = BASE64_DIGITS.indexOf(string.charAt(index));
+      if (digit < 0) throw new IOException("invalid index number: " + string);
+      value = (value << 6) | digit;
+    }
+
+    return value;
+  }
+
+  private final int findLineStart (int position) {
+    while (position > 0) {
+      if (indexBuffer.get(position - 1) == '\n') break;
+      position -= 1;
+    }
+
+    return position;
+  }
+
+  private final int findLineEnd (int position) {
+    while (position < indexSize) {
+      if (indexBuffer.get(position++) == '\n') break;
+    }
+
+    return position;
+  }
+
+  private final String getString (int from, int to) {
+    byte[] bytes = new byte[to - from];
+
+    for (int index=0; index<bytes.length; index+=1) {
+      bytes[index] = indexBuffer.get(from + index);
+    }
+
+    try {
+      return new String(bytes, DictionaryParameters.CHARACTER_ENCODING);
+    } catch (UnsupportedEncodingException exception) {
+      throw new RuntimeException(exception);
+    }
+  }
+
+  private final int findTab (int from, int to) {
+    while (from < to) {
+      if (indexBuffer.get(from) == '\t') return from;
+      from += 1;
+    }
+
+    return to;
+  }
+
+  private final String getHeadword (int start) {
+    int end = findLineEnd(start);
+    return getString(start, findTab(start, end));
+  }
+
+  private final Entry getEntry (int start, int end) throws IOException {
+    if ((end > start) && (indexBuffer.get(end - 1) == '\n')) end -= 1;
+
+    int tab1 = findTab(start, end);
+    int tab2 = findTab((tab1 + 1), end);
+    if (tab2 >= end) throw new IOException("malformed index line: " + getString(start, end));
+
+    return new Entry(
+      getString(start, tab1),
+      decodeNumber(getString((tab1 + 1), tab2)),
+      (int)decodeNumber(getString((tab2 + 1), end))
+    );
+  }
+
+  // returns the start of the first line whose key isn't less than the given one
+  public final int find (String key) {
+    int low = 0;
+    int high = indexSize;
+
+    while (low < high) {
+      int start = findLineStart((low + high) >>> 1);
+
+      if (makeKey(getHeadword(start)).compareTo(key) < 0) {
+        low = findLineEnd(start);
+      } else {
+        high = start;
+      }
+    }
+
+    return low;
+  }
+
+  public final void scan (int position, EntryHandler handler) throws IOException {
+    while (position < indexSize) {
+      int end = findLineEnd(position);
+      Entry entry = getEntry(position, end);
+      if (!handler.handleEntry(entry, makeKey(entry.getHeadword()))) break;
+      position = end;
+    }
+  }
+}
@@ -32,4 +32,10 @@ public class MatchCommand extends MatchesRequest {
   public MatchCommand (String word) {
     this(word, DictionaryStrategy.APPROXIMATE);
   }
+
+  @Override
+  public final boolean loadLocalResponse () {
+    String[] arguments = getArguments();
+    return LocalDictionary.getMatches(getMatches(), arguments[1], arguments[2], arguments[3]);
+  }
 }
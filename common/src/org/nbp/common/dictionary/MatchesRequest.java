@@ -5,13 +5,14 @@ import android.util.Log;
 public abstract class MatchesRequest extends CommandRequest implements MatchesHandler {
   private final static String LOG_TAG = MatchesRequest.class.getName();
 
-  private final MatchList savedMatches = new MatchList();
+  private MatchList savedMatches;
 
   protected MatchesRequest (String... arguments) {
     super(arguments);
   }
 
-  public final MatchList getMatches () {
+  public final synchronized MatchList getMatches () {
+    if (savedMatches == null) savedMatches = new MatchList();
     return savedMatches;
   }
 
@@ -24,6 +25,19 @@ public abstract class MatchesRequest extends CommandRequest implements MatchesHa
     handleMatches(getMatches());
   }
 
+  @Override
+  public final boolean loadCachedResponse () {
+    MatchList matches = DictionaryCache.getMatches(getArguments());
+    if (matches == null) return false;
+
+    getMatches().addAll(matches);
+    return true;
+  }
+
+  private final void cacheMatches () {
+    DictionaryCache.putMatches(getMatches(), getArguments());
+  }
+
   protected final void saveMatches (DictionaryOperands operands) {
     for (String match : getTextAsList()) {
       try {
@@ -35,7 +49,7 @@ public abstract class MatchesRequest extends CommandRequest implements MatchesHa
         if (parameters.isEmpty()) throw new OperandException("missing matched word");
         String word = parameters.removeFirst();
 
-        savedMatches.add(word, name);
+        getMatches().add(word, name);
       } catch (OperandException exception) {
         Log.w(LOG_TAG, exception.getMessage());
       }
@@ -54,8 +68,13 @@ public abstract class MatchesRequest extends CommandRequest implements MatchesHa
         return true;
 
       case ResponseCodes.NO_MATCH:
+        cacheMatches();
         return true;
 
+      case ResponseCodes.END_RESPONSE:
+        cacheMatches();
+        return super.handleResponse(code, operands);
+
       case ResponseCodes.BEGIN_MATCH_LIST:
         saveMatches(operands);
         return false;
@@ -1,6 +1,10 @@
 package org.nbp.common.dictionary;
 
 public class QuitCommand extends FinalRequest {
+  public QuitCommand (DictionaryConnection connection) {
+    super(connection, "quit");
+  }
+
   public QuitCommand () {
     super("quit");
   }
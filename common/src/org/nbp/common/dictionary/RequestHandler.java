@@ -4,4 +4,6 @@ public interface RequestHandler {
   public boolean handleResponse (int code, DictionaryOperands operands);
   public void setFinished ();
   public boolean isFinal ();
+  public boolean loadLocalResponse ();
+  public boolean loadCachedResponse ();
 }
@@ -5,6 +5,11 @@ public class ShowDatabasesCommand extends ItemsRequest {
     super("show", "databases");
   }
 
+  @Override
+  public final boolean loadLocalResponse () {
+    return LocalDictionary.getDatabases(getItems());
+  }
+
   @Override
   public boolean handleResponse (int code, DictionaryOperands operands) {
     switch (code) {
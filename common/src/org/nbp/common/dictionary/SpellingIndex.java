@@ -0,0 +1,595 @@
+package org.nbp.common.dictionary;
+
+import org.nbp.common.CommonContext;
+import org.nbp.common.CommonParameters;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.io.Reader;
+import java.io.InputStreamReader;
+import java.io.BufferedReader;
+
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import android.util.Log;
+import android.content.Context;
+
+// a symmetric delete index - each word is filed under itself and under every
+// variant that's one deletion away from it so that a lookup only needs to
+// probe the misspelled word's own variants
+public class SpellingIndex {
+  private final static String LOG_TAG = SpellingIndex.class.getName();
+
+  private final static int INDEX_FORMAT = 1;
+  private final static int HEADER_SIZE = 36;
+
+  private final MappedByteBuffer indexBuffer;
+  private final int wordCount;
+  private final int variantCount;
+
+  private final int wordOffsetsStart;
+  private final int wordCountsStart;
+  private final int variantHashesStart;
+  private final int variantWordsStart;
+  private final int textStart;
+
+  public final static class Misspelling {
+    private final int start;
+    private final int end;
+
+    public final int getStart () {
+      return start;
+    }
+
+    public final int getEnd () {
+      return end;
+    }
+
+    public Misspelling (int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  private SpellingIndex (File file, long sourceTime, long sourceLength) throws IOException {
+    FileInputStream stream = new FileInputStream(file);
+
+    try {
+      FileChannel channel = stream.getChannel();
+      indexBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      stream.close();
+    }
+
+    if (indexBuffer.capacity() < HEADER_SIZE) throw new IOException("spelling index too short");
+    if (indexBuffer.getInt(0) != INDEX_FORMAT) throw new IOException("spelling index format changed");
+    if (indexBuffer.getLong(4) != sourceTime) throw new IOException("word list modified");
+    if (indexBuffer.getLong(12) != sourceLength) throw new IOException("word list modified");
+
+    wordCount = indexBuffer.getInt(20);
+    variantCount = indexBuffer.getInt(24);
+    int textLength = indexBuffer.getInt(28);
+
+    wordOffsetsStart = HEADER_SIZE;
+    wordCountsStart = wordOffsetsStart + ((wordCount + 1) * 4);
+    variantHashesStart = wordCountsStart + (wordCount * 4);
+    variantWordsStart = variantHashesStart + (variantCount * 4);
+    textStart = variantWordsStart + (variantCount * 4);
+
+    if ((textStart + textLength) != indexBuffer.capacity()) {
+      throw new IOException("spelling index size mismatch");
+    }
+  }
+
+  private static String makeKey (CharSequence word) {
+    return word.toString().toLowerCase();
+  }
+
+  private static Set<String> getVariants (String key) {
+    Set<String> variants = new HashSet<String>();
+    variants.add(key);
+    int length = key.length();
+
+    for (int index=0; index<length; index+=1) {
+      variants.add(key.substring(0, index) + key.substring(index + 1));
+    }
+
+    return variants;
+  }
+
+  private final String getWord (int index) {
+    int from = indexBuffer.getInt(wordOffsetsStart + (index * 4));
+    int to = indexBuffer.getInt(wordOffsetsStart + ((index + 1) * 4));
+    byte[] bytes = new byte[to - from];
+
+    for (int offset=0; offset<bytes.length; offset+=1) {
+      bytes[offset] = indexBuffer.get(textStart + from + offset);
+    }
+
+    return new String(bytes, CommonParameters.INPUT_ENCODING_CHARSET);
+  }
+
+  private final int getWordCount (int index) {
+    return indexBuffer.getInt(wordCountsStart + (index * 4));
+  }
+
+  private final int getVariantHash (int index) {
+    return indexBuffer.getInt(variantHashesStart + (index * 4));
+  }
+
+  private final int getVariantWord (int index) {
+    return indexBuffer.getInt(variantWordsStart + (index * 4));
+  }
+
+  public final boolean isCorrect (CharSequence word) {
+    String key = makeKey(word);
+    int low = 0;
+    int high = wordCount;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int comparison = getWord(middle).compareTo(key);
+      if (comparison == 0) return true;
+
+      if (comparison < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return false;
+  }
+
+  private final void addCandidates (Set<Integer> candidates, int hash) {
+    int low = 0;
+    int high = variantCount;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (getVariantHash(middle) < hash) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    while ((low < variantCount) && (getVariantHash(low) == hash)) {
+      candidates.add(getVariantWord(low++));
+    }
+  }
+
+  // optimal string alignment distance - an adjacent transposition counts as one edit
+  private static int getDistance (String from, String to) {
+    int fromLength = from.length();
+    int toLength = to.length();
+    int[][] distances = new int[fromLength + 1][toLength + 1];
+
+    for (int i=0; i<=fromLength; i+=1) distances[i][0] = i;
+    for (int j=0; j<=toLength; j+=1) distances[0][j] = j;
+
+    for (int i=1; i<=fromLength; i+=1) {
+      for (int j=1; j<=toLength; j+=1) {
+        int cost = (from.charAt(i - 1) == to.charAt(j - 1))? 0: 1;
+
+        int distance = Math.min(
+          Math.min((distances[i - 1][j] + 1), (distances[i][j - 1] + 1)),
+          (distances[i - 1][j - 1] + cost)
+        );
+
+        if ((i > 1) && (j > 1)) {
+          if (from.charAt(i - 1) == to.charAt(j - 2)) {
+            if (from.charAt(i - 2) == to.charAt(j - 1)) {
+              distance = Math.min(distance, (distances[i - 2][j - 2] + 1));
+            }
+          }
+        }
+
+        distances[i][j] = distance;
+      }
+    }
+
+    return distances[fromLength][toLength];
+  }
+
+  private static String matchCase (String suggestion, CharSequence word) {
+    if (word.length() == 0) return suggestion;
+    if (!Character.isUpperCase(word.charAt(0))) return suggestion;
+
+    if ((word.length() > 1) && word.toString().equals(word.toString().toUpperCase())) {
+      return suggestion.toUpperCase();
+    }
+
+    return Character.toUpperCase(suggestion.charAt(0)) + suggestion.substring(1);
+  }
+
+  private final static class Suggestion {
+    public final String word;
+    public final int distance;
+    public final int count;
+
+    public Suggestion (String word, int distance, int count) {
+      this.word = word;
+      this.distance = distance;
+      this.count = count;
+    }
+  }
+
+  // ranked by edit distance, then by how common the word is, then alphabetically
+  public final String[] getSuggestions (CharSequence word) {
+    String key = makeKey(word);
+    Set<Integer> candidates = new HashSet<Integer>();
+
+    for (String variant : getVariants(key)) {
+      addCandidates(candidates, variant.hashCode());
+    }
+
+    List<Suggestion> suggestions = new ArrayList<Suggestion>();
+
+    for (Integer index : candidates) {
+      String candidate = getWord(index);
+      if (candidate.equals(key)) continue;
+
+      // hash collisions and double deletions are weeded out here
+      int distance = getDistance(key, candidate);
+      if (distance > DictionaryParameters.SPELLING_MAXIMUM_DISTANCE) continue;
+
+      suggestions.add(new Suggestion(candidate, distance, getWordCount(index)));
+    }
+
+    Collections.sort(suggestions,
+      new Comparator<Suggestion>() {
+        @Override
+        public int compare (Suggestion suggestion1, Suggestion suggestion2) {
+          if (suggestion1.distance != suggestion2.distance) {
+            return suggestion1.distance - suggestion2.distance;
+          }
+
+          if (suggestion1.count != suggestion2.count) {
+            return (suggestion1.count > suggestion2.count)? -1: 1;
+          }
+
+          return suggestion1.word.compareTo(suggestion2.word);
+        }
+      }
+    );
+
+    int count = Math.min(suggestions.size(), DictionaryParameters.SPELLING_SUGGESTION_LIMIT);
+    String[] words = new String[count];
+
+    for (int index=0; index<count; index+=1) {
+      words[index] = matchCase(suggestions.get(index).word, word);
+    }
+
+    return words;
+  }
+
+  private static boolean isWordCharacter (char character) {
+    return Character.isLetter(character) || (character == '\'');
+  }
+
+  public static int findWordStart (CharSequence text, int offset) {
+    while (offset > 0) {
+      if (!isWordCharacter(text.charAt(offset - 1))) break;
+      offset -= 1;
+    }
+
+    return offset;
+  }
+
+  public static int findWordEnd (CharSequence text, int offset) {
+    int length = text.length();
+
+    while (offset < length) {
+      if (!isWordCharacter(text.charAt(offset))) break;
+      offset += 1;
+    }
+
+    return offset;
+  }
+
+  // words that are joined to digits, and single letters, aren't checked
+  public final List<Misspelling> checkText (CharSequence text, int start, int end) {
+    List<Misspelling> misspellings = new ArrayList<Misspelling>();
+    int offset = start;
+
+    while (offset < end) {
+      char character = text.charAt(offset);
+
+      if (!Character.isLetterOrDigit(character)) {
+        offset += 1;
+        continue;
+      }
+
+      int from = offset;
+      boolean hasDigit = false;
+
+      while (offset < end) {
+        character = text.charAt(offset);
+
+        if (Character.isDigit(character)) {
+          hasDigit = true;
+        } else if (!isWordCharacter(character)) {
+          break;
+        }
+
+        offset += 1;
+      }
+
+      int to = offset;
+      while ((to > from) && (text.charAt(to - 1) == '\'')) to -= 1;
+
+      if (!hasDigit && ((to - from) > 1)) {
+        if (!isCorrect(text.subSequence(from, to))) {
+          misspellings.add(new Misspelling(from, to));
+        }
+      }
+    }
+
+    return misspellings;
+  }
+
+  private static int findLineStart (CharSequence text, int offset) {
+    while (offset > 0) {
+      if (text.charAt(offset - 1) == '\n') break;
+      offset -= 1;
+    }
+
+    return offset;
+  }
+
+  private static int findLineEnd (CharSequence text, int offset) {
+    int length = text.length();
+
+    while (offset < length) {
+      if (text.charAt(offset) == '\n') break;
+      offset += 1;
+    }
+
+    return offset;
+  }
+
+  // the text is checked a line at a time
+  public final Misspelling findNextMisspelling (CharSequence text, int offset) {
+    int length = text.length();
+    int start = findLineStart(text, offset);
+
+    while (start < length) {
+      int end = findLineEnd(text, start);
+
+      for (Misspelling misspelling : checkText(text, start, end)) {
+        if (misspelling.getStart() > offset) return misspelling;
+      }
+
+      start = end + 1;
+    }
+
+    return null;
+  }
+
+  public final Misspelling findPreviousMisspelling (CharSequence text, int offset) {
+    int end = findLineEnd(text, offset);
+
+    while (true) {
+      int start = findLineStart(text, end);
+      List<Misspelling> misspellings = checkText(text, start, end);
+
+      for (int index=misspellings.size()-1; index>=0; index-=1) {
+        Misspelling misspelling = misspellings.get(index);
+        if (misspelling.getEnd() <= offset) return misspelling;
+      }
+
+      if (start == 0) return null;
+      end = start - 1;
+    }
+  }
+
+  private static Map<String, Integer> readWords (File file) throws IOException {
+    Map<String, Integer> words = new TreeMap<String, Integer>();
+    Reader reader = new InputStreamReader(new FileInputStream(file), CommonParameters.INPUT_ENCODING_CHARSET);
+    BufferedReader lines = new BufferedReader(reader);
+
+    try {
+      String line;
+
+      while ((line = lines.readLine()) != null) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields[0].isEmpty()) continue;
+        if (fields[0].charAt(0) == '#') continue;
+
+        String word = makeKey(fields[0]);
+        int count = 0;
+
+        if (fields.length > 1) {
+          try {
+            count = Integer.parseInt(fields[1]);
+          } catch (NumberFormatException exception) {
+            Log.w(LOG_TAG, ("invalid word count: " + line));
+          }
+        }
+
+        Integer previous = words.get(word);
+        if (previous != null) count = Math.max(count, previous);
+        words.put(word, count);
+      }
+    } finally {
+      lines.close();
+    }
+
+    return words;
+  }
+
+  private static void writeIndex (File file, long sourceTime, long sourceLength, Map<String, Integer> words) throws IOException {
+    int wordCount = words.size();
+    String[] keys = words.keySet().toArray(new String[wordCount]);
+
+    byte[][] texts = new byte[wordCount][];
+    int textLength = 0;
+
+    // the hash is in the high half so that sorting groups the words by variant
+    long[] variants = new long[wordCount * 8];
+    int variantCount = 0;
+
+    for (int index=0; index<wordCount; index+=1) {
+      texts[index] = keys[index].getBytes(CommonParameters.INPUT_ENCODING_CHARSET);
+      textLength += texts[index].length;
+
+      for (String variant : getVariants(keys[index])) {
+        if (variantCount == variants.length) {
+          variants = Arrays.copyOf(variants, (variantCount * 2));
+        }
+
+        variants[variantCount++] = ((long)variant.hashCode() << 32) | index;
+      }
+    }
+
+    variants = Arrays.copyOf(variants, variantCount);
+    Arrays.sort(variants);
+
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+    try {
+      output.writeInt(INDEX_FORMAT);
+      output.writeLong(sourceTime);
+      output.writeLong(sourceLength);
+      output.writeInt(wordCount);
+      output.writeInt(variants.length);
+      output.writeInt(textLength);
+      output.writeInt(0);
+
+      {
+        int offset = 0;
+        output.writeInt(offset);
+
+        for (byte[] text : texts) {
+          offset += text.length;
+          output.writeInt(offset);
+        }
+      }
+
+      for (String key : keys) output.writeInt(words.get(key));
+      for (long variant : variants) output.writeInt((int)(variant >> 32));
+      for (long variant : variants) output.writeInt((int)variant);
+      for (byte[] text : texts) output.write(text);
+    } finally {
+      output.close();
+    }
+  }
+
+  private static File getIndexFile () {
+    Context context = CommonContext.getContext();
+    if (context == null) return null;
+
+    File directory = context.getDir(SpellingIndex.class.getSimpleName(), Context.MODE_PRIVATE);
+    if (directory == null) return null;
+
+    return new File(directory, "words.bin");
+  }
+
+  private final static Object INDEX_LOCK = new Object();
+  private static SpellingIndex currentIndex = null;
+  private static boolean isBuilding = false;
+
+  // the word list that the current index, build, or failed build is for
+  private static long currentTime = 0;
+  private static long currentLength = 0;
+
+  private static SpellingIndex buildIndex (File source, File file, long time, long length) {
+    File newFile = new File(file.getPath() + ".new");
+
+    try {
+      Log.d(LOG_TAG, ("begin spelling index: " + source.getAbsolutePath()));
+      writeIndex(newFile, time, length, readWords(source));
+      Log.d(LOG_TAG, "end spelling index");
+
+      if (newFile.renameTo(file)) return new SpellingIndex(file, time, length);
+      Log.w(LOG_TAG, ("spelling index not renamed: " + file.getAbsolutePath()));
+    } catch (IOException exception) {
+      Log.w(LOG_TAG, ("spelling index not built: " + exception.getMessage()));
+    } finally {
+      newFile.delete();
+    }
+
+    return null;
+  }
+
+  private static void startBuild (final File source, final File file, final long time, final long length) {
+    Thread thread = new Thread("spelling-index-builder") {
+      @Override
+      public void run () {
+        SpellingIndex index = buildIndex(source, file, time, length);
+
+        synchronized (INDEX_LOCK) {
+          isBuilding = false;
+
+          if ((time == currentTime) && (length == currentLength)) {
+            currentIndex = index;
+          }
+        }
+      }
+    };
+
+    isBuilding = true;
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  // returns null if there's no word list or if its index isn't ready yet -
+  // a failed build isn't retried until the word list changes
+  public static SpellingIndex get () {
+    synchronized (INDEX_LOCK) {
+      File source = new File(LocalDictionary.getDirectory(), DictionaryParameters.SPELLING_WORDS_FILE);
+
+      if (!source.isFile()) {
+        currentIndex = null;
+        currentTime = 0;
+        currentLength = 0;
+        return null;
+      }
+
+      long time = source.lastModified();
+      long length = source.length();
+
+      if ((time == currentTime) && (length == currentLength)) return currentIndex;
+      if (isBuilding) return null;
+
+      File file = getIndexFile();
+      if (file == null) return null;
+
+      currentIndex = null;
+      currentTime = time;
+      currentLength = length;
+
+      if (file.exists()) {
+        try {
+          currentIndex = new SpellingIndex(file, time, length);
+          return currentIndex;
+        } catch (IOException exception) {
+          Log.d(LOG_TAG, ("spelling index not reused: " + exception.getMessage()));
+        }
+      }
+
+      startBuild(source, file, time, length);
+      return null;
+    }
+  }
+}
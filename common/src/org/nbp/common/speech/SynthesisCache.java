@@ -0,0 +1,203 @@
+package org.nbp.common.speech;
+import org.nbp.common.*;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+
+// rendered utterances, keyed by everything that affects how they sound
+public class SynthesisCache {
+  public final static class Entry {
+    private final byte[] samples;
+    private final int sampleRate;
+    private final int channelCount;
+    private final int sampleSize;
+
+    public final int getSize () {
+      return samples.length;
+    }
+
+    public final int getFrameCount () {
+      return samples.length / (channelCount * sampleSize);
+    }
+
+    // milliseconds
+    public final long getDuration () {
+      return ((long)getFrameCount() * 1000) / sampleRate;
+    }
+
+    public final AudioTrack newTrack (int stream) {
+      int channels = (channelCount == 1)? AudioFormat.CHANNEL_OUT_MONO: AudioFormat.CHANNEL_OUT_STEREO;
+      int encoding = (sampleSize == 1)? AudioFormat.ENCODING_PCM_8BIT: AudioFormat.ENCODING_PCM_16BIT;
+
+      AudioTrack track;
+
+      try {
+        track = new AudioTrack(stream, sampleRate, channels, encoding, samples.length, AudioTrack.MODE_STATIC);
+      } catch (IllegalArgumentException exception) {
+        return null;
+      }
+
+      if (track.write(samples, 0, samples.length) == samples.length) {
+        if (track.getState() == AudioTrack.STATE_INITIALIZED) return track;
+      }
+
+      track.release();
+      return null;
+    }
+
+    public Entry (byte[] samples, int sampleRate, int channelCount, int sampleSize) {
+      this.samples = samples;
+      this.sampleRate = sampleRate;
+      this.channelCount = channelCount;
+      this.sampleSize = sampleSize;
+    }
+  }
+
+  private final Map<String, Entry> cacheEntries = new LinkedHashMap<String, Entry>(0X10, 0.75f, true);
+  private long cacheSize = 0;
+
+  private final Map<String, Integer> spokenCounts =
+        new CachingMap<String, Integer>(CommonParameters.SPEECH_CACHE_CANDIDATES);
+
+  public SynthesisCache () {
+  }
+
+  public static String makeKey (String engine, float rate, float pitch, String text) {
+    return String.format("%s:%s:%s:%s", engine, rate, pitch, text);
+  }
+
+  public final boolean contains (String key) {
+    return cacheEntries.containsKey(key);
+  }
+
+  public final Entry get (String key) {
+    return cacheEntries.get(key);
+  }
+
+  // the least recently used entries are removed once the total size is exceeded
+  public final void put (String key, Entry entry) {
+    {
+      Entry old = cacheEntries.put(key, entry);
+      if (old != null) cacheSize -= old.getSize();
+      cacheSize += entry.getSize();
+    }
+
+    Iterator<Entry> iterator = cacheEntries.values().iterator();
+
+    while (cacheSize > CommonParameters.SPEECH_CACHE_SIZE) {
+      if (!iterator.hasNext()) break;
+      Entry eldest = iterator.next();
+      if (eldest == entry) break;
+
+      cacheSize -= eldest.getSize();
+      iterator.remove();
+    }
+  }
+
+  // returns true when the text has just been spoken often enough to be worth rendering
+  public final boolean noteSpoken (String key) {
+    Integer count = spokenCounts.get(key);
+    count = (count == null)? 1: (count + 1);
+    spokenCounts.put(key, count);
+    return count == CommonParameters.SPEECH_CACHE_THRESHOLD;
+  }
+
+  public final void clear () {
+    cacheEntries.clear();
+    cacheSize = 0;
+    spokenCounts.clear();
+  }
+
+  private static String getIdentifier (ByteBuffer buffer) {
+    StringBuilder identifier = new StringBuilder();
+
+    for (int index=0; index<4; index+=1) {
+      identifier.append((char)(buffer.get() & 0XFF));
+    }
+
+    return identifier.toString();
+  }
+
+  public static Entry readWave (File file) throws IOException {
+    byte[] bytes = new byte[(int)file.length()];
+
+    {
+      FileInputStream stream = new FileInputStream(file);
+
+      try {
+        int count = 0;
+
+        while (count < bytes.length) {
+          int result = stream.read(bytes, count, (bytes.length - count));
+          if (result < 0) throw new IOException("wave file truncated");
+          count += result;
+        }
+      } finally {
+        stream.close();
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+    try {
+      if (!getIdentifier(buffer).equals("RIFF")) throw new IOException("not a RIFF file");
+      buffer.getInt();
+      if (!getIdentifier(buffer).equals("WAVE")) throw new IOException("not a wave file");
+
+      int sampleRate = 0;
+      int channelCount = 0;
+      int sampleSize = 0;
+
+      while (buffer.remaining() >= 8) {
+        String identifier = getIdentifier(buffer);
+        int size = buffer.getInt();
+
+        // the size isn't always filled in when the data is streamed
+        if ((size < 0) || (size > buffer.remaining())) size = buffer.remaining();
+
+        if (identifier.equals("fmt ")) {
+          int start = buffer.position();
+
+          if (buffer.getShort() != 1) throw new IOException("not PCM data");
+          channelCount = buffer.getShort();
+          sampleRate = buffer.getInt();
+          buffer.getInt(); // byte rate
+          buffer.getShort(); // block alignment
+          sampleSize = buffer.getShort() / 8;
+
+          buffer.position(start + size);
+        } else if (identifier.equals("data")) {
+          if (sampleRate == 0) throw new IOException("data before format");
+          if ((channelCount < 1) || (channelCount > 2)) throw new IOException("unsupported channel count");
+          if ((sampleSize < 1) || (sampleSize > 2)) throw new IOException("unsupported sample size");
+
+          size -= size % (channelCount * sampleSize);
+          byte[] samples = new byte[size];
+          buffer.get(samples);
+          return new Entry(samples, sampleRate, channelCount, sampleSize);
+        } else {
+          buffer.position(buffer.position() + size);
+        }
+
+        if ((size & 1) != 0) {
+          if (buffer.hasRemaining()) buffer.get();
+        }
+      }
+    } catch (RuntimeException exception) {
+      throw new IOException("malformed wave file: " + exception.getMessage());
+    }
+
+    throw new IOException("no wave data");
+  }
+}
@@ -3,8 +3,16 @@ import org.nbp.common.*;
 
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Iterator;
+
+import java.io.File;
+import java.io.IOException;
 
 import android.util.Log;
+import android.os.SystemClock;
+
+import android.media.AudioTrack;
 
 import android.speech.tts.TextToSpeech;
 import android.speech.tts.UtteranceProgressListener;
@@ -66,11 +74,270 @@ public abstract class TextPlayer {
   private int utteranceIdentifier = 0;
   private final Set<String> activeUtterances = new HashSet<String>();
 
+  private float speechRate = SpeechParameters.RATE_REFERENCE;
+  private float speechPitch = SpeechParameters.PITCH_REFERENCE;
+
+  private final SynthesisCache synthesisCache = new SynthesisCache();
+  private final Set<String> preparedTexts = new LinkedHashSet<String>();
+  private final Set<String> pendingRenderings = new LinkedHashSet<String>();
+
+  private final static String RENDERING_PREFIX = "render-";
+  private TextToSpeech renderingEngine = null;
+  private boolean renderingReady = false;
+  private long renderingHeldTime = 0;
+
+  private String renderingUtterance = null;
+  private String renderingText = null;
+  private String renderingKey = null;
+
+  private AudioTrack cachedPlayback = null;
+
+  private final void releasePlayback () {
+    if (cachedPlayback != null) {
+      try {
+        cachedPlayback.stop();
+      } catch (IllegalStateException exception) {
+        logSpeechFailure("stop playback", exception);
+      }
+
+      cachedPlayback.release();
+      cachedPlayback = null;
+    }
+  }
+
   private final void cancelSpeaking () {
     synchronized (this) {
       if (segmentGenerator != null) segmentGenerator.removeText();
       activeUtterances.clear();
+      releasePlayback();
+    }
+  }
+
+  private final String makeCacheKey (String text) {
+    return SynthesisCache.makeKey(engineName, speechRate, speechPitch, text);
+  }
+
+  private final static File getRenderingFile (String utterance) {
+    return new File(CommonContext.getContext().getCacheDir(), (utterance + ".wav"));
+  }
+
+  private final void requestRendering (String text) {
+    if (pendingRenderings.size() < CommonParameters.SPEECH_RENDERING_LIMIT) {
+      pendingRenderings.add(text);
+    }
+  }
+
+  // renderings have their own engine instance so that stopping speech doesn't
+  // affect them, but the service may still synthesize one request at a time so
+  // they're only started once speech has been quiet for a while
+  private final void startRendering () {
+    if (renderingUtterance != null) return;
+    if (!renderingReady) return;
+    if (cachedPlayback != null) return;
+    if (!activeUtterances.isEmpty()) return;
+    if (!isActive()) return;
+
+    if ((SystemClock.uptimeMillis() - renderingHeldTime) < CommonParameters.SPEECH_RENDERING_DELAY) {
+      return;
+    }
+
+    Iterator<String> iterator = pendingRenderings.iterator();
+
+    while (iterator.hasNext()) {
+      String text = iterator.next();
+      iterator.remove();
+
+      String key = makeCacheKey(text);
+      if (synthesisCache.contains(key)) continue;
+
+      String utterance = RENDERING_PREFIX + Integer.toString(++utteranceIdentifier);
+      logSpeechAction("render", utterance, text);
+      speechParameters.setUtteranceIdentifier(utterance);
+
+      try {
+        renderingEngine.setSpeechRate(speechRate);
+        renderingEngine.setPitch(speechPitch);
+
+        if (speechParameters.synthesize(renderingEngine, text, getRenderingFile(utterance)) == OK) {
+          renderingUtterance = utterance;
+          renderingText = text;
+          renderingKey = key;
+        }
+      } catch (IllegalArgumentException exception) {
+        logSpeechFailure("render", exception);
+      }
+
+      return;
+    }
+  }
+
+  private final void clearRendering () {
+    renderingUtterance = null;
+    renderingText = null;
+    renderingKey = null;
+  }
+
+  private final void abandonRendering () {
+    if (renderingUtterance != null) {
+      requestRendering(renderingText);
+      clearRendering();
+    }
+  }
+
+  private final void holdRenderings () {
+    renderingHeldTime = SystemClock.uptimeMillis();
+
+    if (renderingUtterance != null) {
+      try {
+        renderingEngine.stop();
+      } catch (IllegalArgumentException exception) {
+        logSpeechFailure("stop rendering", exception);
+      }
+
+      abandonRendering();
+    }
+  }
+
+  private final Timeout renderingDelay =
+    new Timeout(CommonParameters.SPEECH_RENDERING_DELAY, "speech-rendering-delay") {
+      @Override
+      public void run () {
+        synchronized (TextPlayer.this) {
+          startRendering();
+        }
+      }
+    };
+
+  // the delay's callback takes the player's lock so starting it while holding
+  // the lock could deadlock - the holder gets to call startRendering anyway
+  private final void startRenderingDelay () {
+    if (!Thread.holdsLock(this)) renderingDelay.start();
+  }
+
+  private final void endRendering (String utterance, boolean done) {
+    File file = getRenderingFile(utterance);
+
+    if (utterance.equals(renderingUtterance)) {
+      if (done) {
+        try {
+          synthesisCache.put(renderingKey, SynthesisCache.readWave(file));
+        } catch (IOException exception) {
+          logSpeechFailure("load rendering", exception);
+        }
+      }
+
+      clearRendering();
+    }
+
+    file.delete();
+  }
+
+  private final void endPlayback (AudioTrack playback) {
+    if (playback == cachedPlayback) {
+      logSpeechAction("played");
+      releasePlayback();
+      startSpeaking();
+    }
+  }
+
+  private final boolean playCachedSpeech (SynthesisCache.Entry entry, String text) {
+    Integer stream = speechParameters.getStream();
+    AudioTrack track = entry.newTrack((stream != null)? stream: TextToSpeech.Engine.DEFAULT_STREAM);
+    if (track == null) return false;
+
+    {
+      Float volume = speechParameters.getVolume();
+      if (volume == null) volume = SpeechParameters.VOLUME_MAXIMUM;
+
+      Float balance = speechParameters.getBalance();
+      if (balance == null) balance = SpeechParameters.BALANCE_CENTER;
+
+      track.setStereoVolume(
+        (volume * Math.min(1.0f, (1.0f - balance))),
+        (volume * Math.min(1.0f, (1.0f + balance)))
+      );
+    }
+
+    track.setNotificationMarkerPosition(entry.getFrameCount());
+    track.setPlaybackPositionUpdateListener(
+      new AudioTrack.OnPlaybackPositionUpdateListener() {
+        @Override
+        public void onMarkerReached (AudioTrack playback) {
+          synchronized (TextPlayer.this) {
+            endPlayback(playback);
+          }
+        }
+
+        @Override
+        public void onPeriodicNotification (AudioTrack playback) {
+        }
+      }
+    );
+
+    try {
+      track.play();
+    } catch (IllegalStateException exception) {
+      logSpeechFailure("play", exception);
+      track.release();
+      return false;
+    }
+
+    logSpeechAction("play", text);
+    cachedPlayback = track;
+
+    {
+      // the end marker isn't delivered reliably on every release - this
+      // fallback is never cancelled because its callback takes the player's
+      // lock, and it does nothing if the playback has already ended
+      final AudioTrack playback = track;
+      long delay = entry.getDuration() + CommonParameters.SPEECH_PLAYBACK_MARGIN;
+
+      new Timeout(delay, "speech-playback-end") {
+        @Override
+        public void run () {
+          synchronized (TextPlayer.this) {
+            endPlayback(playback);
+          }
+        }
+      }.start();
+    }
+
+    return true;
+  }
+
+  // short phrases which are known to be needed, e.g. the characters, are rendered in advance
+  public final void prepare (CharSequence... texts) {
+    synchronized (this) {
+      for (CharSequence text : texts) {
+        if (text == null) continue;
+        if (text.length() == 0) continue;
+        if (text.length() > CommonParameters.SPEECH_CACHE_TEXT_LENGTH) continue;
+
+        String string = text.toString();
+        preparedTexts.add(string);
+        requestRendering(string);
+      }
+
+      startRendering();
+    }
+  }
+
+  private final void prepareAgain () {
+    for (String text : preparedTexts) {
+      requestRendering(text);
+    }
+
+    startRendering();
+  }
+
+  // a rate or pitch change is usually one of several so the new renderings
+  // wait until the settings have stopped changing
+  private final void changeRendering () {
+    for (String text : preparedTexts) {
+      requestRendering(text);
     }
+
+    holdRenderings();
   }
 
   public final boolean stopSpeaking () {
@@ -102,12 +369,33 @@ public abstract class TextPlayer {
     synchronized (this) {
       if (isActive()) {
         while (true) {
+          if (cachedPlayback != null) return true;
+
           if (activeUtterances.size() >= CommonParameters.SPEECH_SYNTHESIS_CONCURRENCY) {
             return true;
           }
 
           CharSequence segment = segmentGenerator.nextSegment();
-          if (segment == null) return true;
+
+          if (segment == null) {
+            startRendering();
+            return true;
+          }
+
+          if (segment.length() <= CommonParameters.SPEECH_CACHE_TEXT_LENGTH) {
+            String text = segment.toString();
+            String key = makeCacheKey(text);
+            SynthesisCache.Entry entry = synthesisCache.get(key);
+
+            if (entry != null) {
+              // a cached phrase mustn't overtake what the engine is still saying
+              if (activeUtterances.isEmpty()) {
+                if (playCachedSpeech(entry, text)) continue;
+              }
+            } else if (synthesisCache.noteSpoken(key)) {
+              requestRendering(text);
+            }
+          }
 
           String utterance = Integer.toString(++utteranceIdentifier);
           logSpeechAction("speak", utterance, segment);
@@ -133,6 +421,7 @@ public abstract class TextPlayer {
   public final boolean say (CharSequence text) {
     synchronized (this) {
       if (isActive()) {
+        holdRenderings();
         segmentGenerator.addText(text);
         if (!startSpeaking()) return false;
       } else {
@@ -140,6 +429,7 @@ public abstract class TextPlayer {
       }
     }
 
+    startRenderingDelay();
     return true;
   }
 
@@ -158,15 +448,27 @@ public abstract class TextPlayer {
 
   public final boolean setRate (float rate) {
     if (SpeechParameters.verifyRate(rate)) {
+      boolean changed = false;
+
       synchronized (this) {
-        if (hasStarted()) {
-          try {
-            if (currentEngine.setSpeechRate(rate) == OK) return true;
-          } catch (IllegalArgumentException exception) {
-            logSpeechFailure("set rate", exception);
-          }
+        if (!hasStarted()) return false;
+
+        try {
+          if (currentEngine.setSpeechRate(rate) != OK) return false;
+        } catch (IllegalArgumentException exception) {
+          logSpeechFailure("set rate", exception);
+          return false;
+        }
+
+        if (rate != speechRate) {
+          speechRate = rate;
+          changeRendering();
+          changed = true;
         }
       }
+
+      if (changed) startRenderingDelay();
+      return true;
     }
 
     return false;
@@ -174,15 +476,27 @@ public abstract class TextPlayer {
 
   public final boolean setPitch (float pitch) {
     if (SpeechParameters.verifyPitch(pitch)) {
+      boolean changed = false;
+
       synchronized (this) {
-        if (hasStarted()) {
-          try {
-            if (currentEngine.setPitch(pitch) == OK) return true;
-          } catch (IllegalArgumentException exception) {
-            logSpeechFailure("set pitch", exception);
-          }
+        if (!hasStarted()) return false;
+
+        try {
+          if (currentEngine.setPitch(pitch) != OK) return false;
+        } catch (IllegalArgumentException exception) {
+          logSpeechFailure("set pitch", exception);
+          return false;
+        }
+
+        if (pitch != speechPitch) {
+          speechPitch = pitch;
+          changeRendering();
+          changed = true;
         }
       }
+
+      if (changed) startRenderingDelay();
+      return true;
     }
 
     return false;
@@ -294,6 +608,98 @@ public abstract class TextPlayer {
     );
   }
 
+  private final void setRenderingProgressListener () {
+    renderingEngine.setOnUtteranceProgressListener(
+      new UtteranceProgressListener() {
+        @Override
+        public void onStart (String utterance) {
+          synchronized (TextPlayer.this) {
+            logSpeechAction("rendering", utterance);
+          }
+        }
+
+        @Override
+        public void onError (String utterance) {
+          synchronized (TextPlayer.this) {
+            logSpeechAction("rendering failed", utterance);
+            endRendering(utterance, false);
+            startRendering();
+          }
+        }
+
+        @Override
+        public void onError (String utterance, int error) {
+          synchronized (TextPlayer.this) {
+            logSpeechAction(("rendering error " + Integer.toString(error)), utterance);
+            endRendering(utterance, false);
+            startRendering();
+          }
+        }
+
+        @Override
+        public void onStop (String utterance, boolean interrupted) {
+          synchronized (TextPlayer.this) {
+            logSpeechAction("rendering stopped", utterance);
+            if (utterance.equals(renderingUtterance)) abandonRendering();
+            endRendering(utterance, false);
+          }
+        }
+
+        @Override
+        public void onDone (String utterance) {
+          synchronized (TextPlayer.this) {
+            logSpeechAction("rendered", utterance);
+            endRendering(utterance, true);
+            startRendering();
+          }
+        }
+      }
+    );
+  }
+
+  private final void stopRenderingEngine () {
+    if (renderingEngine != null) {
+      abandonRendering();
+
+      try {
+        renderingEngine.shutdown();
+      } catch (IllegalArgumentException exception) {
+        logSpeechFailure("shut down rendering", exception);
+      }
+
+      renderingEngine = null;
+      renderingReady = false;
+    }
+  }
+
+  // rendering is an optimization so a failure to start its engine isn't retried
+  private final void startRenderingEngine (String name) {
+    class RenderingListener implements TextToSpeech.OnInitListener {
+      private TextToSpeech ttsEngine = null;
+
+      @Override
+      public void onInit (int status) {
+        synchronized (TextPlayer.this) {
+          if (ttsEngine == null) return;
+          if (ttsEngine != renderingEngine) return;
+
+          if (status == TextToSpeech.SUCCESS) {
+            renderingReady = true;
+            setRenderingProgressListener();
+            startRendering();
+          } else {
+            logSpeechAction("rendering engine start failed", Integer.toString(status));
+            stopRenderingEngine();
+          }
+        }
+      }
+    }
+
+    RenderingListener listener = new RenderingListener();
+    renderingEngine = new TextToSpeech(CommonContext.getContext(), listener, name);
+    listener.ttsEngine = renderingEngine;
+  }
+
   protected String getEngineName () {
     return null;
   }
@@ -342,13 +748,21 @@ public abstract class TextPlayer {
 
                     if (currentEngine != null) {
                       stopSpeaking();
+                      stopRenderingEngine();
                       currentEngine.shutdown();
                     }
 
+                    synthesisCache.clear();
+                    speechRate = SpeechParameters.RATE_REFERENCE;
+                    speechPitch = SpeechParameters.PITCH_REFERENCE;
+
                     currentEngine = engine;
+                    setUtteranceProgressListener();
                     initializeProperties();
+                    renderingHeldTime = 0; // the initial settings aren't a change
                     segmentGenerator = makeSegmentGenerator();
-                    setUtteranceProgressListener();
+                    startRenderingEngine(getName());
+                    prepareAgain();
 
                     if (pendingText != null) {
                       CharSequence text = pendingText;
@@ -166,6 +166,11 @@ public class ServerSession extends ApplicationComponent implements SessionOperat
   private static int pingNumber = 0;
   private final Timeout pingSender =
     new Timeout(ApplicationParameters.PING_SEND_INTERVAL, "ping-sender") {
+      @Override
+      protected boolean isBlocking () {
+        return true;
+      }
+
       @Override
       public void run () {
         start();
@@ -37,13 +37,13 @@ toStringArray (JNIEnv *env, char **cArray) {
 }
 
 JAVA_METHOD(
-  org_liblouis_Metadata, listTables, jobjectArray
+  org_liblouis_Metadata, listTableFiles, jobjectArray
 ) {
   return toStringArray(env, lou_listTables());
 }
 
 JAVA_METHOD(
-  org_liblouis_Metadata, findTables, jobjectArray,
+  org_liblouis_Metadata, findTableFiles, jobjectArray,
   jstring jQuery
 ) {
   const char *cQuery = (*env)->GetStringUTFChars(env, jQuery, NULL);
@@ -54,7 +54,7 @@ JAVA_METHOD(
 }
 
 JAVA_METHOD(
-  org_liblouis_Metadata, findTable, jstring,
+  org_liblouis_Metadata, findTableFile, jstring,
   jstring jQuery
 ) {
   const char *cQuery = (*env)->GetStringUTFChars(env, jQuery, NULL);
@@ -65,7 +65,7 @@ JAVA_METHOD(
 }
 
 JAVA_METHOD(
-  org_liblouis_Metadata, getValueForKey, jstring,
+  org_liblouis_Metadata, getTableValue, jstring,
   jstring jTable, jstring jKey
 ) {
   const char *cTable = (*env)->GetStringUTFChars(env, jTable, NULL);
@@ -4,6 +4,7 @@ typedef enum {
   RVI_INPUT_LENGTH,
   RVI_OUTPUT_LENGTH,
   RVI_CURSOR_OFFSET,
+  RESULT_VALUES_COUNT
 } ResultValuesIndex;
 
 JAVA_METHOD(
@@ -62,3 +63,149 @@ JAVA_METHOD(
 
   return successful? JNI_TRUE: JNI_FALSE;
 }
+
+/* The scratch buffers are only used while the caller holds the translator
+ * lock. They're kept from one translation to the next, and only ever grow,
+ * so once they've reached a size that's big enough for the longest text
+ * being translated each translation only needs a single pass and no memory
+ * needs to be allocated. Java arrays are only accessed via region copies so
+ * that the VM never needs to make temporary copies of them.
+ */
+typedef struct {
+  void *address;
+  jint size;
+} ScratchBuffer;
+
+static ScratchBuffer scratchInput = {.address=NULL, .size=0};
+static ScratchBuffer scratchOutputOffsets = {.address=NULL, .size=0};
+static ScratchBuffer scratchOutput = {.address=NULL, .size=0};
+static ScratchBuffer scratchInputOffsets = {.address=NULL, .size=0};
+static ScratchBuffer scratchTypeForm = {.address=NULL, .size=0};
+static jint scratchLength = 0;
+
+#define SCRATCH_MINIMUM_SIZE 0X100
+#define SCRATCH_UNUSED_LIMIT 100
+
+static int
+growScratchBuffer (ScratchBuffer *buffer, jint size, size_t elementSize) {
+  if (size <= buffer->size) return 1;
+
+  void *address = realloc(buffer->address, (size * elementSize));
+  if (!address) return 0;
+
+  buffer->address = address;
+  buffer->size = size;
+  return 1;
+}
+
+static int
+allocateInputScratch (jint size) {
+  if (!growScratchBuffer(&scratchInput, size, sizeof(jchar))) return 0;
+  if (!growScratchBuffer(&scratchOutputOffsets, (size + 1), sizeof(jint))) return 0;
+  return 1;
+}
+
+static int
+allocateOutputScratch (jint size) {
+  if (!growScratchBuffer(&scratchOutput, size, sizeof(jchar))) return 0;
+  if (!growScratchBuffer(&scratchInputOffsets, (size + 1), sizeof(jint))) return 0;
+  if (!growScratchBuffer(&scratchTypeForm, size, sizeof(formtype))) return 0;
+  return 1;
+}
+
+JAVA_METHOD(
+  org_liblouis_InternalTranslator, translateToScratch, jboolean,
+  jstring jTableList, jcharArray jInputBuffer, jint jInputLength, jshortArray jTypeForm,
+  jintArray jOutputOffsets, jintArray jResultValues,
+  jboolean jBackTranslate, jboolean jNoContractions
+) {
+  const jint cInputLength = jInputLength;
+  if (!allocateInputScratch(cInputLength)) return JNI_FALSE;
+
+  jchar *cInputBuffer = scratchInput.address;
+  jint *cOutputOffsets = scratchOutputOffsets.address;
+  (*env)->GetCharArrayRegion(env, jInputBuffer, 0, cInputLength, cInputBuffer);
+
+  jint cResultValues[RESULT_VALUES_COUNT];
+  (*env)->GetIntArrayRegion(env, jResultValues, 0, RESULT_VALUES_COUNT, cResultValues);
+
+  int haveTypeForm = jTypeForm != NULL;
+  int translationMode = 0;
+  char *spacing = NULL;
+
+  int cBackTranslate = jBackTranslate != JNI_FALSE;
+  int cNoContractions = jNoContractions != JNI_FALSE;
+
+  if (cBackTranslate) {
+    translationMode |= noUndefinedDots;
+  } else {
+    translationMode |= dotsIO | ucBrl;
+    if (cNoContractions) translationMode |= noContractions;
+  }
+
+  jint size = cResultValues[RVI_OUTPUT_LENGTH];
+  if (size < SCRATCH_MINIMUM_SIZE) size = SCRATCH_MINIMUM_SIZE;
+  if (size < cInputLength) size = cInputLength;
+
+  const char *cTableList = (*env)->GetStringUTFChars(env, jTableList, NULL);
+  const jint cursorOffset = cResultValues[RVI_CURSOR_OFFSET];
+  jint inputLength = 0;
+  jint outputLength = 0;
+  jint outputCursor = cursorOffset;
+  int successful = 0;
+
+  while (allocateOutputScratch(size)) {
+    const jint scratchSize = scratchOutput.size;
+    formtype *typeForm = haveTypeForm? scratchTypeForm.address: NULL;
+
+    inputLength = cInputLength;
+    outputLength = scratchSize;
+    outputCursor = cursorOffset;
+
+    if (typeForm) {
+      (*env)->GetShortArrayRegion(env, jTypeForm, 0, cInputLength, (jshort *)typeForm);
+      memset(&typeForm[cInputLength], 0, ((scratchSize - cInputLength) * sizeof(*typeForm)));
+    }
+
+    successful =
+      (cBackTranslate? lou_backTranslate: lou_translate)(
+        cTableList, cInputBuffer, &inputLength, scratchOutput.address, &outputLength,
+        typeForm, spacing, cOutputOffsets, scratchInputOffsets.address,
+        ((cursorOffset < 0)? NULL: &outputCursor), translationMode
+      );
+
+    if (!successful) break;
+    if (inputLength == cInputLength) break;
+    if ((scratchSize - outputLength) > SCRATCH_UNUSED_LIMIT) break;
+
+    size = scratchSize << 1;
+    logPrint(LOU_LOG_DEBUG, "growing translation scratch buffers: %d", size);
+  }
+
+  (*env)->ReleaseStringUTFChars(env, jTableList, cTableList);
+
+  if (successful) {
+    scratchLength = outputLength;
+    (*env)->SetIntArrayRegion(env, jOutputOffsets, 0, cInputLength, cOutputOffsets);
+
+    cResultValues[RVI_INPUT_LENGTH] = inputLength;
+    cResultValues[RVI_OUTPUT_LENGTH] = outputLength;
+    cResultValues[RVI_CURSOR_OFFSET] = (cursorOffset < 0)? cursorOffset: outputCursor;
+    (*env)->SetIntArrayRegion(env, jResultValues, 0, RESULT_VALUES_COUNT, cResultValues);
+  } else {
+    scratchLength = 0;
+  }
+
+  return successful? JNI_TRUE: JNI_FALSE;
+}
+
+JAVA_METHOD(
+  org_liblouis_InternalTranslator, copyScratch, void,
+  jcharArray jOutputBuffer, jintArray jInputOffsets
+) {
+  jsize length = (*env)->GetArrayLength(env, jOutputBuffer);
+  if (length > scratchLength) length = scratchLength;
+
+  (*env)->SetCharArrayRegion(env, jOutputBuffer, 0, length, scratchOutput.address);
+  (*env)->SetIntArrayRegion(env, jInputOffsets, 0, length, scratchInputOffsets.address);
+}
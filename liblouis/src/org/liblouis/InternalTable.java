@@ -41,14 +41,14 @@ public class InternalTable {
 
   private native static short getEmphasisBit (String tableList, String emphasisClass);
   public final short getEmphasisBit (String emphasisClass) {
-    synchronized (Louis.NATIVE_LOCK) {
+    synchronized (Louis.TRANSLATOR_LOCK) {
       return getEmphasisBit(tableList, emphasisClass);
     }
   }
 
   private native static boolean addRule (String tableList, String rule);
   public final boolean addRule (String rule) {
-    synchronized (Louis.NATIVE_LOCK) {
+    synchronized (Louis.TRANSLATOR_LOCK) {
       return addRule(tableList, rule);
     }
   }
@@ -3,6 +3,7 @@ package org.liblouis;
 import java.util.Arrays;
 
 import android.text.Spanned;
+import android.text.TextUtils;
 import android.text.style.UnderlineSpan;
 import android.text.style.StyleSpan;
 import android.graphics.Typeface;
@@ -36,12 +37,34 @@ public class InternalTranslator extends Translator {
   private final static short TYPE_FORM_ITALIC = Emphasis.getItalicBit();
   private final static short TYPE_FORM_UNDERLINE = Emphasis.getUnderlineBit();
 
+  private final static ThreadLocal<short[]> typeFormScratch = new ThreadLocal<short[]>();
+  private final static ThreadLocal<char[]> inputScratch = new ThreadLocal<char[]>();
+
   private static short[] createTypeForm (int length) {
-    short[] typeForm = new short[length];
-    Arrays.fill(typeForm, (short)0);
+    short[] typeForm = typeFormScratch.get();
+
+    if ((typeForm == null) || (typeForm.length < length)) {
+      typeForm = new short[length];
+      typeFormScratch.set(typeForm);
+    } else {
+      Arrays.fill(typeForm, 0, length, (short)0);
+    }
+
     return typeForm;
   }
 
+  private static char[] getInputCharacters (CharSequence text, int length) {
+    char[] characters = inputScratch.get();
+
+    if ((characters == null) || (characters.length < length)) {
+      characters = new char[length];
+      inputScratch.set(characters);
+    }
+
+    TextUtils.getChars(text, 0, length, characters, 0);
+    return characters;
+  }
+
   private static short[] createTypeForm (int length, CharSequence text) {
     short[] typeForm = null;
 
@@ -113,9 +136,12 @@ public class InternalTranslator extends Translator {
       backTranslate? null:
       createTypeForm(typeFormLength, inputBuffer);
 
-    synchronized (Louis.NATIVE_LOCK) {
+    final String tableList = table.getList();
+    final String inputString = inputBuffer.toString();
+
+    synchronized (Louis.TRANSLATOR_LOCK) {
       boolean translated = translate(
-        table.getList(), inputBuffer.toString(), outputBuffer,
+        tableList, inputString, outputBuffer,
         typeForm, outputOffsets, inputOffsets,
         resultValues, backTranslate, noContractions
       );
@@ -124,35 +150,92 @@ public class InternalTranslator extends Translator {
     }
 
     if (backTranslate) {
-      {
-        int outStart = 0;
+      adjustBackTranslation(inputLength, outputLength, outputOffsets, resultValues);
+    }
 
-        while (true) {
-          final int inOffset = resultValues[RVI_INPUT_LENGTH];
-          if (inOffset == inputLength) break;
+    return true;
+  }
 
-          final int outOffset = outputOffsets[inOffset];
-          if (outOffset < outStart) break;
-          if (outOffset > outputLength) break;
+  private native static boolean translateToScratch (
+    String tableList, char[] inputBuffer, int inputLength, short[] typeForm,
+    int[] outputOffsets, int[] resultValues,
+    boolean backTranslate, boolean noContractions
+  );
 
-          outStart = outOffset;
-          resultValues[RVI_INPUT_LENGTH] = inOffset + 1;
-        }
-      }
+  private native static void copyScratch (char[] outputBuffer, int[] inputOffsets);
 
-      if (resultValues[RVI_INPUT_LENGTH] == inputLength) {
-        final int outLength = resultValues[RVI_OUTPUT_LENGTH];
+  @Override
+  public final Output translate (
+    CharSequence inputBuffer, int[] outputOffsets,
+    int[] resultValues, boolean backTranslate,
+    boolean includeHighlighting, boolean noContractions
+  ) {
+    final InternalTable table = backTranslate? getBackwardTable(): getForwardTable();
+    final int inputLength = inputBuffer.length();
 
-        while (true) {
-          int inOffset = resultValues[RVI_INPUT_LENGTH];
-          if (inOffset == 0) break;
+    final short[] typeForm =
+      !includeHighlighting? null:
+      backTranslate? null:
+      createTypeForm(inputLength, inputBuffer);
 
-          if (outputOffsets[inOffset -= 1] != outLength) break;
-          resultValues[RVI_INPUT_LENGTH] = inOffset;
-        }
+    final String tableList = table.getList();
+    final char[] inputCharacters = getInputCharacters(inputBuffer, inputLength);
+
+    final char[] outputBuffer;
+    final int[] inputOffsets;
+
+    synchronized (Louis.TRANSLATOR_LOCK) {
+      boolean translated = translateToScratch(
+        tableList, inputCharacters, inputLength, typeForm,
+        outputOffsets, resultValues,
+        backTranslate, noContractions
+      );
+
+      if (!translated) return null;
+      final int outputLength = resultValues[RVI_OUTPUT_LENGTH];
+
+      outputBuffer = new char[outputLength];
+      inputOffsets = new int[outputLength + 1];
+      copyScratch(outputBuffer, inputOffsets);
+    }
+
+    if (backTranslate) {
+      adjustBackTranslation(inputLength, outputBuffer.length, outputOffsets, resultValues);
+    }
+
+    return new Output(outputBuffer, inputOffsets);
+  }
+
+  private final static void adjustBackTranslation (
+    int inputLength, int outputLength,
+    int[] outputOffsets, int[] resultValues
+  ) {
+    {
+      int outStart = 0;
+
+      while (true) {
+        final int inOffset = resultValues[RVI_INPUT_LENGTH];
+        if (inOffset == inputLength) break;
+
+        final int outOffset = outputOffsets[inOffset];
+        if (outOffset < outStart) break;
+        if (outOffset > outputLength) break;
+
+        outStart = outOffset;
+        resultValues[RVI_INPUT_LENGTH] = inOffset + 1;
       }
     }
 
-    return true;
+    if (resultValues[RVI_INPUT_LENGTH] == inputLength) {
+      final int outLength = resultValues[RVI_OUTPUT_LENGTH];
+
+      while (true) {
+        int inOffset = resultValues[RVI_INPUT_LENGTH];
+        if (inOffset == 0) break;
+
+        if (outputOffsets[inOffset -= 1] != outLength) break;
+        resultValues[RVI_INPUT_LENGTH] = inOffset;
+      }
+    }
   }
 }
@@ -33,7 +33,13 @@ public final class Louis {
     Log.i(LOG_TAG, "liblouis version: " + LIBRARY_VERSION);
   }
 
-  public static Object NATIVE_LOCK = new Object();
+  // The translator and the metadata indexer each keep their state in
+  // static storage within liblouis, so calls into the same one can't
+  // overlap. They don't share any state with each other, though, so
+  // metadata lookups needn't wait for translations and vice versa.
+  public final static Object TRANSLATOR_LOCK = new Object();
+  public final static Object METADATA_LOCK = new Object();
+
   public native static void releaseMemory ();
   public native static String getDataPath ();
   public native static void setDataPath (String path);
@@ -159,12 +165,14 @@ public final class Louis {
     removeFile(newLocation);
     extractAssets(assets, ASSETS_FOLDER, newLocation);
 
-    synchronized (NATIVE_LOCK) {
-      location.renameTo(oldLocation);
-      newLocation.renameTo(location);
+    synchronized (TRANSLATOR_LOCK) {
+      synchronized (METADATA_LOCK) {
+        location.renameTo(oldLocation);
+        newLocation.renameTo(location);
 
-      Log.d(LOG_TAG, "assets updated");
-      releaseMemory();
+        Log.d(LOG_TAG, "assets updated");
+        releaseMemory();
+      }
     }
 
     removeFile(oldLocation);
@@ -229,7 +237,7 @@ public final class Louis {
   }
 
   public final static boolean compile (String tableList) {
-    synchronized (NATIVE_LOCK) {
+    synchronized (TRANSLATOR_LOCK) {
       return compileTable(tableList);
     }
   }
@@ -1,10 +1,34 @@
 package org.liblouis;
 
 public abstract class Metadata {
-  public native static String[] listTables ();
-  public native static String[] findTables (String query);
-  public native static String findTable (String query);
-  public native static String getValueForKey (String table, String key);
+  private native static String[] listTableFiles ();
+  private native static String[] findTableFiles (String query);
+  private native static String findTableFile (String query);
+  private native static String getTableValue (String table, String key);
+
+  public static String[] listTables () {
+    synchronized (Louis.METADATA_LOCK) {
+      return listTableFiles();
+    }
+  }
+
+  public static String[] findTables (String query) {
+    synchronized (Louis.METADATA_LOCK) {
+      return findTableFiles(query);
+    }
+  }
+
+  public static String findTable (String query) {
+    synchronized (Louis.METADATA_LOCK) {
+      return findTableFile(query);
+    }
+  }
+
+  public static String getValueForKey (String table, String key) {
+    synchronized (Louis.METADATA_LOCK) {
+      return getTableValue(table, key);
+    }
+  }
 
   private Metadata () {
   }
@@ -63,29 +63,67 @@ public abstract class Translation extends TranslationComponent {
     return inputOffsets[outputOffset];
   }
 
-  public final int findFirstInputOffset (int inputOffset) {
-    final int outputOffset = getOutputOffset(inputOffset);
+  private final static int[] makeRunStarts (int[] offsets) {
+    final int count = offsets.length;
+    final int[] starts = new int[count];
 
-    while (inputOffset > 0) {
-      int next = inputOffset - 1;
-      if (getOutputOffset(next) != outputOffset) break;
-      inputOffset = next;
+    for (int index=0; index<count; index+=1) {
+      if ((index > 0) && (offsets[index-1] == offsets[index])) {
+        starts[index] = starts[index-1];
+      } else {
+        starts[index] = index;
+      }
     }
 
-    return inputOffset;
+    return starts;
   }
 
-  public final int findLastInputOffset (int inputOffset) {
-    final int outputOffset = getOutputOffset(inputOffset);
-    final int inputLength = getInputLength();
+  private final static int[] makeRunEnds (int[] offsets) {
+    final int count = offsets.length;
+    final int[] ends = new int[count];
 
-    while (inputOffset < inputLength) {
-      int next = inputOffset + 1;
-      if (getOutputOffset(next) != outputOffset) break;
-      inputOffset = next;
+    for (int index=count-1; index>=0; index-=1) {
+      if ((index < (count - 1)) && (offsets[index+1] == offsets[index])) {
+        ends[index] = ends[index+1];
+      } else {
+        ends[index] = index;
+      }
     }
 
-    return inputOffset;
+    return ends;
+  }
+
+  private int[] inputRunStarts = null;
+  private int[] inputRunEnds = null;
+  private int[] outputRunStarts = null;
+  private int[] outputRunEnds = null;
+
+  private final void makeInputRuns () {
+    synchronized (this) {
+      if (inputRunStarts == null) {
+        inputRunEnds = makeRunEnds(outputOffsets);
+        inputRunStarts = makeRunStarts(outputOffsets);
+      }
+    }
+  }
+
+  private final void makeOutputRuns () {
+    synchronized (this) {
+      if (outputRunStarts == null) {
+        outputRunEnds = makeRunEnds(inputOffsets);
+        outputRunStarts = makeRunStarts(inputOffsets);
+      }
+    }
+  }
+
+  public final int findFirstInputOffset (int inputOffset) {
+    makeInputRuns();
+    return inputRunStarts[inputOffset];
+  }
+
+  public final int findLastInputOffset (int inputOffset) {
+    makeInputRuns();
+    return inputRunEnds[inputOffset];
   }
 
   public final Integer getInputCursor () {
@@ -156,32 +194,53 @@ public abstract class Translation extends TranslationComponent {
   }
 
   public final int findFirstOutputOffset (int outputOffset) {
-    final int inputOffset = getInputOffset(outputOffset);
+    makeOutputRuns();
+    return outputRunStarts[outputOffset];
+  }
 
-    while (outputOffset > 0) {
-      int next = outputOffset - 1;
-      if (getInputOffset(next) != inputOffset) break;
-      outputOffset = next;
-    }
+  public final int findLastOutputOffset (int outputOffset) {
+    makeOutputRuns();
+    return outputRunEnds[outputOffset];
+  }
 
-    return outputOffset;
+  public final Integer getOutputCursor () {
+    return outputCursor;
   }
 
-  public final int findLastOutputOffset (int outputOffset) {
-    final int inputOffset = getInputOffset(outputOffset);
-    final int outputLength = getOutputLength();
+  private final static ThreadLocal<int[]> resultValuesScratch = new ThreadLocal<int[]>();
+
+  private final static int[] getResultValues () {
+    int[] resultValues = resultValuesScratch.get();
 
-    while (outputOffset < outputLength) {
-      int next = outputOffset + 1;
-      if (getInputOffset(next) != inputOffset) break;
-      outputOffset = next;
+    if (resultValues == null) {
+      resultValues = new int[RESULT_VALUES_COUNT];
+      resultValuesScratch.set(resultValues);
     }
 
-    return outputOffset;
+    return resultValues;
   }
 
-  public final Integer getOutputCursor () {
-    return outputCursor;
+  private final static void appendUntranslatedInput (
+    CharSequence input, char[] output,
+    int[] outOffsets, int[] inOffsets, int[] resultValues
+  ) {
+    final int inputLength = input.length();
+    final int outputLength = output.length;
+
+    while (true) {
+      final int inOffset = resultValues[RVI_INPUT_LENGTH];
+      if (inOffset == inputLength) break;
+
+      final int outOffset = resultValues[RVI_OUTPUT_LENGTH];
+      if (outOffset == outputLength) break;
+
+      output[outOffset] = input.charAt(inOffset);
+      outOffsets[inOffset] = outOffset;
+      inOffsets[outOffset] = inOffset;
+
+      resultValues[RVI_INPUT_LENGTH] = inOffset + 1;
+      resultValues[RVI_OUTPUT_LENGTH] = outOffset + 1;
+    }
   }
 
   public Translation (TranslationBuilder builder, boolean backTranslate) {
@@ -199,16 +258,45 @@ public abstract class Translation extends TranslationComponent {
     int outputLength = builder.getOutputLength();
 
     int[] outOffsets = new int[inputLength + 1];
-    final int[] resultValues = new int[RESULT_VALUES_COUNT];
+    final int[] resultValues = getResultValues();
+
+    char[] output = null;
+    int[] inOffsets = null;
+    boolean translated = false;
+
+    if (allowLongerOutput) {
+      resultValues[RVI_INPUT_LENGTH]  = inputLength;
+      resultValues[RVI_OUTPUT_LENGTH] = outputLength;
+      resultValues[RVI_CURSOR_OFFSET] = (inputCursor != null)? inputCursor: NO_CURSOR;
+
+      Translator.Output sizedOutput = translator.translate(
+        suppliedInput, outOffsets, resultValues,
+        backTranslate, includeHighlighting, noContractions
+      );
+
+      if (sizedOutput != null) {
+        output = sizedOutput.getCharacters();
+        inOffsets = sizedOutput.getInputOffsets();
+        outputLength = output.length;
+        translated = true;
 
-    char[] output;
-    int[] inOffsets;
-    boolean translated;
+        if (backTranslate) {
+          final int missing = inputLength - resultValues[RVI_INPUT_LENGTH];
+
+          if (missing > 0) {
+            outputLength += missing;
+            output = Arrays.copyOf(output, outputLength);
+            inOffsets = Arrays.copyOf(inOffsets, outputLength + 1);
+            appendUntranslatedInput(suppliedInput, output, outOffsets, inOffsets, resultValues);
+          }
+        }
+      }
+    }
 
     int retryCount = 0;
     int previousConsumed = -1;
 
-    while (true) {
+    while (output == null) {
       output = new char[outputLength];
       inOffsets = new int[outputLength + 1];
 
@@ -248,20 +336,7 @@ public abstract class Translation extends TranslationComponent {
       }
 
       if (backTranslate) {
-        while (true) {
-          final int inOffset = resultValues[RVI_INPUT_LENGTH];
-          if (inOffset == inputLength) break;
-
-          final int outOffset = resultValues[RVI_OUTPUT_LENGTH];
-          if (outOffset == outputLength) break;
-
-          output[outOffset] = suppliedInput.charAt(inOffset);
-          outOffsets[inOffset] = outOffset;
-          inOffsets[outOffset] = inOffset;
-
-          resultValues[RVI_INPUT_LENGTH] = inOffset + 1;
-          resultValues[RVI_OUTPUT_LENGTH] = outOffset + 1;
-        }
+        appendUntranslatedInput(suppliedInput, output, outOffsets, inOffsets, resultValues);
       }
 
       int currentConsumed = resultValues[RVI_INPUT_LENGTH];
@@ -277,6 +352,7 @@ public abstract class Translation extends TranslationComponent {
       }
 
       outputLength <<= 1;
+      output = null;
     }
 
     int newInputLength  = resultValues[RVI_INPUT_LENGTH];
@@ -56,4 +56,34 @@ public abstract class Translator extends TranslationComponent {
     int[] resultValues, boolean backTranslate,
     boolean includeHighlighting, boolean noContractions
   );
+
+  public final static class Output {
+    private final char[] outputCharacters;
+    private final int[] inputOffsets;
+
+    public Output (char[] characters, int[] offsets) {
+      outputCharacters = characters;
+      inputOffsets = offsets;
+    }
+
+    public final char[] getCharacters () {
+      return outputCharacters;
+    }
+
+    public final int[] getInputOffsets () {
+      return inputOffsets;
+    }
+  }
+
+  // A translator which can determine how long its output needs to be
+  // overrides this so that the whole input is translated in one pass into
+  // exactly sized arrays. Returning null means that the caller should fall
+  // back to translating into a buffer of its own choosing.
+  public Output translate (
+    CharSequence inputBuffer, int[] outputOffsets,
+    int[] resultValues, boolean backTranslate,
+    boolean includeHighlighting, boolean noContractions
+  ) {
+    return null;
+  }
 }